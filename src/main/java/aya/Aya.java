@@ -12,23 +12,34 @@ import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import aya.codec.StdlibSnapshot;
 import aya.exceptions.ex.ParserException;
 import aya.exceptions.runtime.AyaRuntimeException;
+import aya.exceptions.runtime.StoppedError;
+import aya.exceptions.runtime.ValueError;
 import aya.exceptions.runtime.UserObjRuntimeException;
 import aya.ext.color.ColorInstructionStore;
 import aya.ext.date.DateInstructionStore;
 import aya.ext.debug.DebugInstructionStore;
 import aya.ext.dialog.DialogInstructionStore;
+import aya.ext.fold.FoldInstructionStore;
 import aya.ext.fstream.FStreamInstructionStore;
 import aya.ext.graphics.GraphicsInstructionStore;
 import aya.ext.image.ImageInstructionStore;
+import aya.ext.importlib.ImportlibInstructionStore;
+import aya.ext.iter.IterInstructionStore;
 import aya.ext.json.JSONInstructionStore;
 import aya.ext.la.LinearAlgebraInstructionStore;
+import aya.ext.parallel.ParallelInstructionStore;
 import aya.ext.plot.PlotInstructionStore;
 import aya.ext.socket.SocketInstructionStore;
+import aya.ext.stats.StatsInstructionStore;
 import aya.ext.sys.SystemInstructionStore;
 import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionRegistry;
 import aya.instruction.named.NamedInstructionStore;
 import aya.instruction.op.ColonOps;
 import aya.instruction.op.DotOps;
@@ -48,6 +59,9 @@ import aya.variable.VariableData;
 public class Aya extends Thread {
 	public static final boolean DEBUG = true;
 	public static final String QUIT = "\\Q";
+	public static final String LOAD_STDLIB = "\\STDLIB";
+	/** Recompute the globals which depend on the environment after restoring a snapshot of them */
+	public static final String RUN_RESTORE_HOOKS = "__aya__.on_restore :# {~};";
 	
 	public static final String VERSION_NAME = "v0.4.0";
 	public static String ayarcPath = "ayarc.aya";
@@ -61,17 +75,52 @@ public class Aya extends Thread {
 	private final BlockingQueue<String> _input = new LinkedBlockingQueue<String>();
 	private StringSearch _helpData;
 	private VariableData _variables;
-	private static Aya _instance = getInstance();
 	private long _lastInputRunTime = 0;
-	private ArrayList<NamedInstructionStore> _namedInstructionStores = new ArrayList<NamedInstructionStore>();
+	private boolean _globalsPristine = true; // No input has been run yet
+	private ArrayList<ArrayList<String>> _helpTextLogs = new ArrayList<ArrayList<String>>();
+	private NamedInstructionRegistry _namedInstructions = new NamedInstructionRegistry();
 	private SymbolTable _symbolTable = new SymbolTable();
 	
 	private CallStack _callstack = new CallStack();
 	
+	// Threads evaluating blocks for parallel ops use their own variables and call stack
+	private static final ThreadLocal<VariableData> _worker_vars = new ThreadLocal<VariableData>();
+	private static final ThreadLocal<CallStack> _worker_callstack = new ThreadLocal<CallStack>();
+	private static final AtomicInteger _active_workers = new AtomicInteger(0);
+	// Lists and dicts record the generation they were created in, see checkMutable
+	private static final AtomicInteger _generation = new AtomicInteger(0);
+	// Set by another thread to stop the running input
+	private static volatile boolean _stop_requested = false;
+	// Created after the statics above, the variables use them
+	private static Aya _instance = getInstance();
+	
 	public CallStack getCallStack() {
+		if (_active_workers.get() > 0) {
+			final CallStack cs = _worker_callstack.get();
+			if (cs != null) return cs;
+		}
 		return _callstack;
 	}
 	
+	/**
+	 * Run fn on the current thread using the given variables and a new call
+	 * stack. Used by the worker threads of parallel ops
+	 */
+	public static <T> T runWorker(VariableData vars, Supplier<T> fn) {
+		final VariableData prev_vars = _worker_vars.get();
+		final CallStack prev_callstack = _worker_callstack.get();
+		_worker_vars.set(vars);
+		_worker_callstack.set(new CallStack());
+		_active_workers.incrementAndGet();
+		try {
+			return fn.get();
+		} finally {
+			_active_workers.decrementAndGet();
+			_worker_vars.set(prev_vars);
+			_worker_callstack.set(prev_callstack);
+		}
+	}
+	
 	protected Aya() {
 		//Exists only to defeat instantiation
 	}
@@ -100,7 +149,12 @@ public class Aya extends Thread {
 					}
 					
 					long startTime = System.currentTimeMillis();
-					_instance.run(input);
+					if (input.equals(LOAD_STDLIB)) {
+						_instance.loadStdlib();
+					} else {
+						_globalsPristine = false;
+						_instance.run(input);
+					}
 					_lastInputRunTime = System.currentTimeMillis() - startTime;
 					
 					if (_input.isEmpty()) {
@@ -118,6 +172,22 @@ public class Aya extends Thread {
 		_input.offer(s);
 	}
 	
+	/**
+	 * Stop the running input at its next instruction. Until
+	 * {@link #clearStop()} is called, queued input stops as soon as it starts
+	 */
+	public static void requestStop() {
+		_stop_requested = true;
+	}
+	
+	public static void clearStop() {
+		_stop_requested = false;
+	}
+	
+	public static boolean isStopRequested() {
+		return _stop_requested;
+	}
+	
 	public String nextLine() {
 		return _scanner.nextLine();
 	}
@@ -126,7 +196,33 @@ public class Aya extends Thread {
 		return _scanner;
 	}
 	
+	public static int currentGeneration() {
+		return _generation.get();
+	}
+	
+	/** Start a new generation, used for each fork of the variables for a parallel worker */
+	public static int nextGeneration() {
+		return _generation.incrementAndGet();
+	}
+	
+	/**
+	 * Throw if a parallel worker modifies a list or dict created before its
+	 * fork of the variables, other workers and the caller may be using it
+	 */
+	public static void checkMutable(int generation) {
+		if (_active_workers.get() > 0) {
+			final VariableData vars = _worker_vars.get();
+			if (vars != null && generation < vars.getGeneration()) {
+				throw new ValueError("Cannot modify a list or dict created outside of a parallel block");
+			}
+		}
+	}
+	
 	public VariableData getVars() {
+		if (_active_workers.get() > 0) {
+			final VariableData vars = _worker_vars.get();
+			if (vars != null) return vars;
+		}
 		return _instance._variables;
 	}
 
@@ -163,11 +259,24 @@ public class Aya extends Thread {
 	
 	public StringSearch getHelpData() {
 		_instance.initHelpData();
+		// Searches should include the docs of stores which have not been used yet
+		_instance._namedInstructions.loadAll(_instance);
 		return _helpData;
 	}
 	
 	public void addHelpText(String in) {
-		_instance.getHelpData().addUnique(in);
+		_instance.initHelpData();
+		_instance._helpData.addUnique(in);
+		for (ArrayList<String> log : _helpTextLogs) log.add(in);
+	}
+	
+	/** Also add all help text added from now on to the list, until {@link #stopHelpTextLog} is called */
+	public void startHelpTextLog(ArrayList<String> log) {
+		_helpTextLogs.add(log);
+	}
+	
+	public void stopHelpTextLog(ArrayList<String> log) {
+		_helpTextLogs.removeIf(l -> l == log);
 	}
 
 	public static String[] getQuickSearchData() {
@@ -188,17 +297,40 @@ public class Aya extends Thread {
 	public boolean loadAyarc() {
 		//Load the standard library
 		try {
-			String pathString = Paths.get(AyaPrefs.getAyaDir(), ayarcPath).toString().replace("\\", "\\\\");
-			getInstance().queueInput("\"" + pathString + "\"G~");
-            getInstance().queueInput("import ::golf");
-            getInstance().queueInput("import ::shell");
-            getInstance().queueInput("cd \".\"");
+			getInstance().queueInput(LOAD_STDLIB);
+			getInstance().queueInput("cd \".\"");
 		} catch (Exception e) {
 			return false;
 		}
 		return true;
 	}
 	
+	/**
+	 * Restore the standard library from the snapshot if there is a valid one,
+	 * otherwise run ayarc.aya and save a new snapshot. The snapshot is only
+	 * used if no other input has modified the globals yet
+	 */
+	private void loadStdlib() {
+		final boolean pristine = _globalsPristine;
+		_globalsPristine = false;
+		if (pristine && StdlibSnapshot.restore(this)) {
+			run(RUN_RESTORE_HOOKS);
+			return;
+		}
+		
+		String pathString = Paths.get(AyaPrefs.getAyaDir(), ayarcPath).toString().replace("\\", "\\\\");
+		ArrayList<String> helpText = new ArrayList<String>();
+		startHelpTextLog(helpText);
+		boolean ok = run("\"" + pathString + "\"G~");
+		ok &= run("import ::golf");
+		ok &= run("import ::shell");
+		stopHelpTextLog(helpText);
+		
+		if (ok && pristine) {
+			StdlibSnapshot.save(this, helpText);
+		}
+	}
+	
 	public long getLastInputRunTime() {
 		return _lastInputRunTime;
 	}
@@ -244,6 +376,14 @@ public class Aya extends Thread {
 		}
 	}
 	
+	public void setOut(PrintStream ps) {
+		_out = ps;
+	}
+	
+	public void setErr(PrintStream ps) {
+		_err = ps;
+	}
+	
 	public void setIn(InputStream is) {
 		_in = is;
 		_scanner = new Scanner(_in, "UTF-8");
@@ -256,11 +396,13 @@ public class Aya extends Thread {
 	// THREAD OVERRIDES //
 	//////////////////////
 	
-	private void run(String str) {
+	/** Returns false if there was an error */
+	private boolean run(String str) {
 		try {
-			run(Parser.compile(str, this));
+			return run(Parser.compile(str, this));
 		} catch (ParserException e) {
 			_instance._err.println("SYNTAX ERROR: " + e.getSimpleMessage());
+			return false;
 		}
 	}
 	
@@ -279,32 +421,44 @@ public class Aya extends Thread {
 	////////////////////////
 
 	private void initNamedInstructions() {
-		_namedInstructionStores.add(new DebugInstructionStore());
-		_namedInstructionStores.add(new JSONInstructionStore());
-		_namedInstructionStores.add(new ImageInstructionStore());
-		_namedInstructionStores.add(new GraphicsInstructionStore());
-		_namedInstructionStores.add(new FStreamInstructionStore());
-		_namedInstructionStores.add(new SystemInstructionStore());
-		_namedInstructionStores.add(new DialogInstructionStore());
-		_namedInstructionStores.add(new PlotInstructionStore());
-		_namedInstructionStores.add(new DateInstructionStore());
-		_namedInstructionStores.add(new SocketInstructionStore());
-		_namedInstructionStores.add(new ColorInstructionStore());
-		_namedInstructionStores.add(new LinearAlgebraInstructionStore());
+		addNamedInstructionStore(new DebugInstructionStore());
+		addNamedInstructionStore(new JSONInstructionStore());
+		addNamedInstructionStore(new FStreamInstructionStore());
+		addNamedInstructionStore(new SystemInstructionStore());
+		addNamedInstructionStore(new DateInstructionStore());
+		addNamedInstructionStore(new SocketInstructionStore());
+		addNamedInstructionStore(new LinearAlgebraInstructionStore());
+		addNamedInstructionStore(new StatsInstructionStore());
+		addNamedInstructionStore(new ParallelInstructionStore());
+		addNamedInstructionStore(new IterInstructionStore());
+		addNamedInstructionStore(new FoldInstructionStore());
+		addNamedInstructionStore(new ImportlibInstructionStore());
 		
-		for (NamedInstructionStore x : _namedInstructionStores) {
-			x.initHelpData(getInstance());
-		}
+		// These stores use java.awt, only create them when one of their instructions is run
+		addLazyNamedInstructionStore("image.", () -> new ImageInstructionStore());
+		addLazyNamedInstructionStore("graphics.", () -> new GraphicsInstructionStore());
+		addLazyNamedInstructionStore("dialog.", () -> new DialogInstructionStore());
+		addLazyNamedInstructionStore("plot.", () -> new PlotInstructionStore());
+		addLazyNamedInstructionStore("color.", () -> new ColorInstructionStore());
 		
+		// Stores from other jars on the classpath
+		for (String err : _namedInstructions.addServices(this)) {
+			_err.println("Unable to load named instruction store: " + err);
+		}
 	}
+	
+	/** Add the store's instructions. Names which are already defined are not replaced */
+	public void addNamedInstructionStore(NamedInstructionStore store) {
+		_namedInstructions.add(store, this);
+	}
+	
+	/** See {@link NamedInstructionRegistry#addLazy} */
+	public void addLazyNamedInstructionStore(String prefix, Supplier<NamedInstructionStore> store) {
+		_namedInstructions.addLazy(prefix, store);
+	}
+	
 	public NamedInstruction getNamedInstruction(String name) {
-		for (NamedInstructionStore x : _namedInstructionStores) {
-			NamedInstruction i = x.getInstruction(name);
-			if (i != null) {
-				return i;
-			}
-		}
-		return null;
+		return _namedInstructions.get(name);
 	}
 
 	/////////////////////
@@ -320,19 +474,22 @@ public class Aya extends Thread {
 	// PRIVATE METHODS //
 	/////////////////////
 	
-	/** Run a block */
-	private void run(Block b) {
+	/** Run a block, return false if there was an error */
+	private boolean run(Block b) {
 		try {
 			b.eval();
 			String s = b.getPrintOutputState();
 			if (!s.equals("")) {
 				println(s);
 			}
+			return true;
 		} catch (AyaRuntimeException ex) {
 			ex.print(_instance._err);
 			if (!_callstack.isEmpty()) {
 				_instance._err.print(_callstack.toString());
 			}
+		} catch (StoppedError e) {
+			_instance._err.println(e.getMessage());
 		} catch (Exception e) {
 			_instance._err.println(exToString(e));
 			try {
@@ -352,6 +509,7 @@ public class Aya extends Thread {
 			_instance._variables.reset();
 			_instance._callstack.reset();
 		}
+		return false;
 	}
 	
 	////////////////////
@@ -2,10 +2,13 @@ package aya;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import aya.daemon.AyaClient;
+import aya.daemon.AyaDaemon;
 import aya.obj.symbol.SymbolTable;
 import aya.util.FileUtils;
 
@@ -296,11 +299,43 @@ public class InteractiveAya extends Thread {
 		return code;
 	}
 	
+	/**
+	 * Read the script and prepend the arguments as code. Drop the first
+	 * line if it is a shebang
+	 */
+	public static String readScript(String filename, String[] args) throws IOException {
+		String code = argCode(args, 0);
+		String script = (code + "\n" + FileUtils.readAllText(filename)).trim();
+		
+		// Is there a shebang? If yes, drop the first line
+		if (script.charAt(0) == '#' && script.charAt(1) == '!') {
+			int line_end = script.indexOf('\n');
+			script = script.substring(line_end);
+		}
+		
+		return script;
+	}
+	
 	public static void main(String[] args) {
 		//for (int i = 0; i < args.length; i++) {
 		//	System.out.println("[" + i + "]: " + "'" + args[i] + "'");
 		//}
 		
+		// Run the script on the daemon if there is one, before loading anything
+		if (args.length > 2 && args[1].equals("-client")) {
+			AyaPrefs.init();
+			int code = AyaClient.run(Arrays.copyOfRange(args, 2, args.length));
+			if (code != AyaClient.NO_DAEMON) {
+				System.exit(code);
+			}
+			
+			// No daemon, run the script in this process
+			String[] local_args = new String[args.length - 1];
+			local_args[0] = args[0];
+			System.arraycopy(args, 2, local_args, 1, args.length - 2);
+			args = local_args;
+		}
+		
 		Aya aya = Aya.getInstance();
 		
 		//Use default system io (interactive in the terminal)
@@ -314,21 +349,23 @@ public class InteractiveAya extends Thread {
 				iaya.initCode(argCode(args, 2));
 			} 
 			
+			// Keep the standard library loaded and run scripts sent with -client
+			else if (args[1].equals("-daemon")) {
+				try {
+					AyaDaemon.serve(aya);
+				} catch (IOException e) {
+					System.err.println("Unable to start the aya daemon: " + e.getMessage());
+				}
+				System.exit(1);
+			}
+			
 			// Run a script 
 			else if (args[1].contains(".aya")) {
 				interactive = false;
 				String filename = args[1];
-					
-				String code = argCode(args,	2);
 				
 				try {
-					String script = (code + "\n" + FileUtils.readAllText(filename)).trim();
-					
-					// Is there a shebang? If yes, drop the first line
-					if (script.charAt(0) == '#' && script.charAt(1) == '!') {
-						int line_end = script.indexOf('\n');
-						script = script.substring(line_end);
-					}
+					String script = readScript(filename, Arrays.copyOfRange(args, 2, args.length));
 
 					//System.out.println("Queueing script:");
 					//System.out.println(script);
@@ -342,7 +379,8 @@ public class InteractiveAya extends Thread {
 			}
 			
 			else {
-				System.out.println("use `aya -i` to enter the repl or `aya script.aya [arg1 arg2 ...]` to run a file");
+				System.out.println("use `aya -i` to enter the repl or `aya script.aya [arg1 arg2 ...]` to run a file\n"
+						+ "use `aya -daemon` to keep the standard library loaded and `aya -client script.aya [arg1 arg2 ...]` to run a file with it");
 			}
 		}
 		
@@ -0,0 +1,44 @@
+package aya.codec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import aya.Aya;
+
+/** SHA-256 helpers for detecting stale cached data */
+final class Fingerprint {
+
+	private Fingerprint() { }
+
+	static MessageDigest sha256() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	static void update(MessageDigest md, String s) {
+		md.update(s.getBytes(StandardCharsets.UTF_8));
+		md.update((byte)0);
+	}
+
+	/**
+	 * Identifies the format and the interpreter build: the jar, or Aya.class
+	 * if running from a classes dir. Compiled instructions from a different
+	 * build may not be valid.
+	 */
+	static String buildStamp() throws IOException {
+		try {
+			File code = new File(Aya.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			if (code.isDirectory()) code = new File(code, "aya" + File.separator + "Aya.class");
+			return Tags.FORMAT_VERSION + " " + Aya.VERSION_NAME + " "
+					+ code.getPath() + " " + code.lastModified() + " " + code.length();
+		} catch (Exception e) {
+			throw new IOException(e);
+		}
+	}
+}
@@ -0,0 +1,327 @@
+package aya.codec;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+
+import aya.Aya;
+import aya.AyaPrefs;
+import aya.exceptions.ex.ParserException;
+import aya.instruction.InstructionStack;
+import aya.obj.block.Block;
+import aya.parser.Parser;
+import aya.parser.token.TokenQueue;
+import aya.parser.tokens.CollectionToken;
+import aya.parser.tokens.Token;
+
+/**
+ * On-disk cache of compiled source files, used by importlib.
+ *
+ * Each source file gets a <code>.ayac</code> file in
+ * <code>&lt;aya dir&gt;/.cache/modules</code> named after a hash of its
+ * path. It holds the instructions generated by the parser, the help text
+ * from the file's doc comments and the modules the file imports. The cache
+ * is used if the source still has the same modification time and size, or
+ * failing that the same content hash, and was written by the same
+ * interpreter build.
+ *
+ * Compiling a file can also prefetch the modules it imports: worker threads
+ * read, validate and tokenize them (and the modules they import) while the
+ * interpreter runs. Symbols are only created and instructions only generated
+ * on the interpreter thread when the module is actually imported, so the
+ * result is the same as compiling it then. Nothing is prefetched on a
+ * single processor.
+ */
+public class ModuleCache {
+
+	private static final String DIR = "modules";
+
+	/** With a single processor the workers would only compete with the interpreter */
+	private static final boolean PREFETCH = Runtime.getRuntime().availableProcessors() > 1;
+
+	/** Prefetched modules which have not been imported yet */
+	private static final ConcurrentHashMap<String, FutureTask<Prepared>> _prefetched = new ConcurrentHashMap<String, FutureTask<Prepared>>();
+	/** Modules which have been compiled, they are not prefetched again */
+	private static final Set<String> _compiled = ConcurrentHashMap.newKeySet();
+
+	/** The part of compiling a file which does not need the interpreter */
+	private static class Prepared {
+		final Path src;
+		final long mtime;
+		final long size;
+		final ArrayList<String> help;
+		final ArrayList<String> imports;
+		// Cache hit: positioned at the instructions
+		final ObjReader reader;
+		// Cache miss
+		final byte[] hash;
+		final TokenQueue tokens;
+
+		Prepared(Path src, long mtime, long size, ArrayList<String> help, ArrayList<String> imports,
+				ObjReader reader, byte[] hash, TokenQueue tokens) {
+			this.src = src;
+			this.mtime = mtime;
+			this.size = size;
+			this.help = help;
+			this.imports = imports;
+			this.reader = reader;
+			this.hash = hash;
+			this.tokens = tokens;
+		}
+
+		/** True if the file has not been modified since it was prepared */
+		boolean isCurrent() {
+			try {
+				return Files.getLastModifiedTime(src).toMillis() == mtime && Files.size(src) == size;
+			} catch (IOException e) {
+				return false;
+			}
+		}
+	}
+
+	private static Path cachePath(String source) throws IOException {
+		final MessageDigest md = Fingerprint.sha256();
+		Fingerprint.update(md, source);
+		final StringBuilder name = new StringBuilder();
+		for (byte b : Arrays.copyOf(md.digest(), 16)) name.append(String.format("%02x", b));
+		return Paths.get(AyaPrefs.getAyaDir(), ".cache", DIR, name + ".ayac");
+	}
+
+	/** Compile the file, reading it from the cache if possible and updating the cache if not */
+	public static Block compile(Aya aya, String path) throws IOException, ParserException {
+		return compile(aya, path, null);
+	}
+
+	/**
+	 * Compile the file like {@link #compile(Aya, String)}. If searchPath is
+	 * not null, start prefetching the modules imported by the file, looking
+	 * for them in the given directories in order.
+	 */
+	public static Block compile(Aya aya, String path, List<String> searchPath) throws IOException, ParserException {
+		final Path src = Paths.get(path).toAbsolutePath().normalize();
+		_compiled.add(src.toString());
+
+		Prepared p = null;
+		final FutureTask<Prepared> task = _prefetched.remove(src.toString());
+		if (task != null) {
+			// Run it on this thread if no worker has started it yet
+			task.run();
+			try {
+				p = task.get();
+			} catch (ExecutionException | InterruptedException e) {
+				// Prepare it again below so errors are reported as usual
+			}
+			if (p != null && !p.isCurrent()) p = null;
+		}
+		if (p == null) p = prepare(src, true);
+
+		if (PREFETCH && searchPath != null && !p.imports.isEmpty()) {
+			prefetch(p.imports, resolveDirs(searchPath));
+		}
+
+		if (p.reader != null) {
+			try {
+				final InstructionStack is = p.reader.readInstructions();
+				for (String s : p.help) aya.addHelpText(s);
+				return new Block(is);
+			} catch (IOException | RuntimeException e) {
+				// Unreadable instructions, compile the source
+				p = prepare(src, false);
+			}
+		}
+		return generate(aya, p);
+	}
+
+	/**
+	 * Read the cache entry of the file if it is valid, otherwise read and
+	 * tokenize the source. Does not use the interpreter
+	 */
+	private static Prepared prepare(Path src, boolean useCache) throws IOException, ParserException {
+		final String source = src.toString();
+		final long mtime = Files.getLastModifiedTime(src).toMillis();
+		final long size = Files.size(src);
+
+		byte[] bytes = null;
+		byte[] hash = null;
+
+		// Cache hit
+		if (useCache) try {
+			final ObjReader in = new ObjReader(new ByteArrayInputStream(Files.readAllBytes(cachePath(source))));
+			if (in.readInt() == Tags.MAGIC
+					&& in.readInt() == Tags.FORMAT_VERSION
+					&& in.readString().equals(Fingerprint.buildStamp())
+					&& in.readString().equals(source)) {
+				final long cached_mtime = in.readLong();
+				final long cached_size = in.readLong();
+				final byte[] cached_hash = in.readBytes();
+
+				boolean valid = cached_mtime == mtime && cached_size == size;
+				if (!valid) {
+					// The file was touched or copied, check if the content changed
+					bytes = Files.readAllBytes(src);
+					hash = Fingerprint.sha256().digest(bytes);
+					valid = Arrays.equals(hash, cached_hash);
+				}
+
+				if (valid) {
+					final ArrayList<String> help = in.readStrings();
+					final ArrayList<String> imports = in.readStrings();
+					return new Prepared(src, mtime, size, help, imports, in, null, null);
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			// Missing or unreadable, compile the source
+		}
+
+		// Cache miss
+		if (bytes == null) {
+			bytes = Files.readAllBytes(src);
+			hash = Fingerprint.sha256().digest(bytes);
+		}
+
+		final ArrayList<String> help = new ArrayList<String>();
+		final TokenQueue tokens = Parser.assemble(Parser.tokenize(readAllText(bytes), help::add));
+		return new Prepared(src, mtime, size, help, findImports(tokens), null, hash, tokens);
+	}
+
+	/** Generate the instructions of a prepared cache miss and update the cache */
+	private static Block generate(Aya aya, Prepared p) throws ParserException {
+		for (String s : p.help) aya.addHelpText(s);
+
+		// Help text from strings compiled while generating
+		final ArrayList<String> help = new ArrayList<String>(p.help);
+		final Block block;
+		aya.startHelpTextLog(help);
+		try {
+			block = new Block(Parser.generate(p.tokens));
+		} finally {
+			aya.stopHelpTextLog(help);
+		}
+
+		try {
+			final String source = p.src.toString();
+			final ByteArrayOutputStream out_bytes = new ByteArrayOutputStream();
+			final ObjWriter out = new ObjWriter(out_bytes);
+			out.writeInt(Tags.MAGIC);
+			out.writeInt(Tags.FORMAT_VERSION);
+			out.writeString(Fingerprint.buildStamp());
+			out.writeString(source);
+			out.writeLong(p.mtime);
+			out.writeLong(p.size);
+			out.writeBytes(p.hash);
+			out.writeStrings(help);
+			out.writeStrings(p.imports);
+			out.writeInstructions(block.getInstructions());
+			out.flush();
+			StdlibSnapshot.writeAtomically(cachePath(source), out_bytes.toByteArray());
+		} catch (IOException | RuntimeException e) {
+			// The cache is only an optimization
+		}
+
+		return block;
+	}
+
+	/** Absolute directories, relative ones are resolved against the working directory */
+	private static ArrayList<String> resolveDirs(List<String> searchPath) {
+		final ArrayList<String> dirs = new ArrayList<String>(searchPath.size());
+		for (String dir : searchPath) {
+			dirs.add(Paths.get(dir).isAbsolute() ? dir : AyaPrefs.getWorkingDir() + dir);
+		}
+		return dirs;
+	}
+
+	/** Start preparing the imported modules on worker threads */
+	private static void prefetch(ArrayList<String> imports, ArrayList<String> dirs) {
+		for (String name : imports) {
+			final Path src = findModule(name, dirs);
+			if (src == null) continue;
+			final String source = src.toString();
+			if (_compiled.contains(source)) continue;
+
+			final FutureTask<Prepared> task = new FutureTask<Prepared>(() -> {
+				final Prepared p = prepare(src, true);
+				prefetch(p.imports, dirs);
+				return p;
+			});
+			if (_prefetched.putIfAbsent(source, task) == null) {
+				ForkJoinPool.commonPool().execute(task);
+			}
+		}
+	}
+
+	/** The file importlib.import would load for the name, see importlib.aya */
+	private static Path findModule(String name, ArrayList<String> dirs) {
+		try {
+			if (name.startsWith("/")) {
+				return Paths.get(name).toAbsolutePath().normalize();
+			}
+			final String file = name.contains(".aya") ? name : name.replace('.', '/') + ".aya";
+			for (String dir : dirs) {
+				final Path p = Paths.get(dir + file);
+				if (Files.exists(p)) return p.toAbsolutePath().normalize();
+			}
+		} catch (RuntimeException e) {
+			// Invalid path
+		}
+		return null;
+	}
+
+	/**
+	 * Names of the modules imported at the top level of a file:
+	 * <code>import ::name</code>, <code>import "name"</code>,
+	 * <code>import [::a ::b]</code> and <code>from ::name import ...</code>
+	 */
+	private static ArrayList<String> findImports(TokenQueue tokens) {
+		final ArrayList<String> imports = new ArrayList<String>();
+		final ArrayList<Token> ts = tokens.getArrayList();
+		for (int i = 0; i + 1 < ts.size(); i++) {
+			final Token t = ts.get(i);
+			if (!t.isa(Token.VAR)) continue;
+			if (t.getData().equals("from")) {
+				addImport(ts.get(i + 1), imports);
+				i++; // The following import names variables, not modules
+				if (i + 1 < ts.size() && ts.get(i + 1).isa(Token.VAR) && ts.get(i + 1).getData().equals("import")) i++;
+			} else if (t.getData().equals("import")) {
+				final Token next = ts.get(i + 1);
+				if (next.isa(Token.LIST)) {
+					for (Token item : ((CollectionToken)next).getTokens()) addImport(item, imports);
+				} else {
+					addImport(next, imports);
+				}
+			}
+		}
+		return imports;
+	}
+
+	private static void addImport(Token t, ArrayList<String> imports) {
+		if ((t.isa(Token.SYMBOL) || t.isa(Token.STRING)) && !imports.contains(t.getData())) {
+			imports.add(t.getData());
+		}
+	}
+
+	/** Same text as FileUtils.readAllText: every line ends with a '\n' */
+	private static String readAllText(byte[] bytes) throws IOException {
+		final BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+		final StringBuilder sb = new StringBuilder();
+		String line;
+		while ((line = br.readLine()) != null) {
+			sb.append(line).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,357 @@
+package aya.codec;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import aya.Aya;
+import aya.exceptions.ex.NotAnOperatorError;
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.DataInstruction;
+import aya.instruction.DictLiteralInstruction;
+import aya.instruction.EmptyDictLiteralInstruction;
+import aya.instruction.EmptyListLiteralInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.InstructionStack;
+import aya.instruction.InterpolateStringInstruction;
+import aya.instruction.LambdaInstruction;
+import aya.instruction.ListBuilderInstruction;
+import aya.instruction.ListLiteralInstruction;
+import aya.instruction.NumberListLiteralInstruction;
+import aya.instruction.StringLiteralInstruction;
+import aya.instruction.TupleInstruction;
+import aya.instruction.flag.PopCallstackInstruction;
+import aya.instruction.flag.PopVarFlagInstruction;
+import aya.instruction.index.AnonGetIndexInstruction;
+import aya.instruction.index.GetExprIndexInstruction;
+import aya.instruction.index.GetNumberIndexInstruction;
+import aya.instruction.index.GetObjIndexInstruction;
+import aya.instruction.index.GetVarIndexInstruction;
+import aya.instruction.index.SetExprIndexInstruction;
+import aya.instruction.index.SetNumberIndexInstruction;
+import aya.instruction.index.SetObjIndexInstruction;
+import aya.instruction.index.SetVarIndexInstruction;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.op.ColonOps;
+import aya.instruction.op.DotOps;
+import aya.instruction.op.MiscOps;
+import aya.instruction.op.OpInstruction;
+import aya.instruction.op.Ops;
+import aya.instruction.variable.GetCDictInstruction;
+import aya.instruction.variable.GetKeyVariableInstruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.instruction.variable.QuoteGetKeyVariableInstruction;
+import aya.instruction.variable.QuoteGetVariableInstruction;
+import aya.instruction.variable.SetKeyVariableInstruction;
+import aya.instruction.variable.SetVariableInstruction;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.block.BlockHeader;
+import aya.obj.block.BlockHeaderArg;
+import aya.obj.character.Char;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.BigNum;
+import aya.obj.number.FractionNum;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+
+/**
+ * Reads objects and instructions written by {@link ObjWriter}. Malformed
+ * input or names that no longer resolve (a removed operator or named
+ * instruction) raise an IOException.
+ */
+public class ObjReader {
+
+	private final DataInputStream _in;
+	private final ArrayList<Obj> _objs = new ArrayList<Obj>();
+	private final ArrayList<Symbol> _symbols = new ArrayList<Symbol>();
+	private final SymbolTable _symbolTable = Aya.getInstance().getSymbols();
+
+	public ObjReader(InputStream in) {
+		_in = new DataInputStream(in);
+	}
+
+	/** Register the objects passed to {@link ObjWriter#preassign} */
+	public void preassign(Obj... objs) {
+		for (Obj o : objs) _objs.add(o);
+	}
+
+	/** Look up an operator by its name ("+", ".<", ":*", "Mp", ...) */
+	static OpInstruction opFromName(String name) {
+		try {
+			if (name.length() == 1) {
+				return Ops.getOp(name.charAt(0));
+			} else if (name.length() == 2) {
+				switch (name.charAt(0)) {
+				case '.': return DotOps.getOp(name.charAt(1));
+				case ':': return ColonOps.getOp(name.charAt(1));
+				case 'M': return MiscOps.getOp(name.charAt(1));
+				}
+			}
+		} catch (NotAnOperatorError e) {
+			// Fall through
+		}
+		return null;
+	}
+
+	public int readInt() throws IOException {
+		return _in.readInt();
+	}
+
+	public long readLong() throws IOException {
+		return _in.readLong();
+	}
+
+	public byte[] readBytes() throws IOException {
+		final byte[] bytes = new byte[_in.readInt()];
+		_in.readFully(bytes);
+		return bytes;
+	}
+
+	public String readString() throws IOException {
+		return new String(readBytes(), StandardCharsets.UTF_8);
+	}
+
+	public ArrayList<String> readStrings() throws IOException {
+		final int n = _in.readInt();
+		final ArrayList<String> out = new ArrayList<String>(n);
+		for (int i = 0; i < n; i++) out.add(readString());
+		return out;
+	}
+
+	public Symbol readSymbol() throws IOException {
+		final byte tag = _in.readByte();
+		if (tag == Tags.SYM_NEW) {
+			final Symbol sym = _symbolTable.getSymbol(readString());
+			_symbols.add(sym);
+			return sym;
+		} else if (tag == Tags.SYM_REF) {
+			return _symbols.get(_in.readInt());
+		} else {
+			throw bad("symbol tag " + tag);
+		}
+	}
+
+	/** Replace the contents of the dict with the pairs written by {@link ObjWriter#writeDictContents} */
+	public void readDictContents(Dict dict) throws IOException {
+		dict.clear();
+		final int n = _in.readInt();
+		for (int i = 0; i < n; i++) {
+			final Symbol key = readSymbol();
+			dict.set(key, readObj());
+		}
+	}
+
+	public Obj readObj() throws IOException {
+		final byte tag = _in.readByte();
+		switch (tag) {
+		case Tags.NULL:
+			return null;
+		case Tags.REF:
+			return _objs.get(_in.readInt());
+		case Tags.NUM:
+			return new Num(_in.readDouble());
+		case Tags.BIGNUM:
+			return new BigNum(new BigDecimal(readString()));
+		case Tags.FRACTION:
+			final BigInteger n = new BigInteger(readString());
+			return new FractionNum(n, new BigInteger(readString()));
+		case Tags.CHAR:
+			return Char.valueOf(_in.readChar());
+		case Tags.SYMBOL:
+			return readSymbol();
+		case Tags.STR:
+			return register(List.fromString(readString()));
+		case Tags.DOUBLELIST:
+			final double[] ds = new double[_in.readInt()];
+			for (int i = 0; i < ds.length; i++) ds[i] = _in.readDouble();
+			return register(new List(new DoubleList(ds)));
+		case Tags.LIST: {
+			final List list = register(new List());
+			final int len = _in.readInt();
+			for (int i = 0; i < len; i++) list.mutAdd(readObj());
+			return list;
+		}
+		case Tags.DICT: {
+			final Dict dict = register(new Dict());
+			readDictContents(dict);
+			return dict;
+		}
+		case Tags.BLOCK: {
+			final Block block = register(new Block());
+			readInstructions(block.getInstructions());
+			final int size = _in.readInt();
+			for (int i = 0; i < size; i++) block.getStack().push(readObj());
+			return block;
+		}
+		default:
+			throw bad("object tag " + tag);
+		}
+	}
+
+	private <T extends Obj> T register(T o) {
+		_objs.add(o);
+		return o;
+	}
+
+	private <T extends Obj> T readObj(Class<T> c) throws IOException {
+		final Obj o = readObj();
+		if (o != null && !c.isInstance(o)) {
+			throw bad("expected " + c.getSimpleName() + ", got " + o.getClass().getSimpleName());
+		}
+		return c.cast(o);
+	}
+
+	private Block[] readBlocks() throws IOException {
+		final int n = _in.readInt();
+		if (n < 0) return null;
+		final Block[] blocks = new Block[n];
+		for (int i = 0; i < n; i++) blocks[i] = readObj(Block.class);
+		return blocks;
+	}
+
+	public InstructionStack readInstructions() throws IOException {
+		final InstructionStack is = new InstructionStack();
+		readInstructions(is);
+		return is;
+	}
+
+	private void readInstructions(InstructionStack is) throws IOException {
+		final int n = _in.readInt();
+		final ArrayList<Instruction> instructions = is.getInstrucionList();
+		instructions.ensureCapacity(n);
+		for (int i = 0; i < n; i++) instructions.add(readInstruction());
+	}
+
+	private Instruction readInstruction() throws IOException {
+		final byte tag = _in.readByte();
+		switch (tag) {
+		case Tags.I_DATA:
+			return new DataInstruction(readObj());
+		case Tags.I_OP: {
+			final String name = readString();
+			final OpInstruction op = opFromName(name);
+			if (op == null) throw bad("unknown operator " + name);
+			return op;
+		}
+		case Tags.I_NAMED: {
+			final String name = readString();
+			final NamedInstruction ni = Aya.getInstance().getNamedInstruction(name);
+			if (ni == null) throw bad("unknown named instruction " + name);
+			return ni;
+		}
+		case Tags.I_GET_VAR:
+			return new GetVariableInstruction(readSymbol());
+		case Tags.I_GET_KEY_VAR:
+			return new GetKeyVariableInstruction(readSymbol());
+		case Tags.I_SET_VAR:
+			return new SetVariableInstruction(readSymbol());
+		case Tags.I_SET_KEY_VAR:
+			return new SetKeyVariableInstruction(readSymbol());
+		case Tags.I_QUOTE_GET_VAR:
+			return new QuoteGetVariableInstruction(readSymbol());
+		case Tags.I_QUOTE_GET_KEY_VAR:
+			return new QuoteGetKeyVariableInstruction(readSymbol());
+		case Tags.I_GET_CDICT:
+			return new GetCDictInstruction(readSymbol());
+		case Tags.I_BLOCK_LITERAL: {
+			final Block block = readObj(Block.class);
+			final int n = _in.readInt();
+			final BlockLiteralInstruction bl;
+			if (n < 0) {
+				bl = new BlockLiteralInstruction(block);
+			} else {
+				final HashMap<Symbol, Block> defaults = new HashMap<Symbol, Block>();
+				for (int i = 0; i < n; i++) {
+					final Symbol var = readSymbol();
+					defaults.put(var, readObj(Block.class));
+				}
+				bl = new BlockLiteralInstruction(block, defaults);
+			}
+			if (_in.readBoolean()) bl.setAutoEval();
+			return bl;
+		}
+		case Tags.I_DICT_LITERAL: {
+			final Block block = readObj(Block.class);
+			return new DictLiteralInstruction(block, _in.readInt());
+		}
+		case Tags.I_EMPTY_DICT:
+			return EmptyDictLiteralInstruction.INSTANCE;
+		case Tags.I_EMPTY_LIST:
+			return EmptyListLiteralInstruction.INSTANCE;
+		case Tags.I_LIST_LITERAL: {
+			final InstructionStack is = readInstructions();
+			return new ListLiteralInstruction(is, _in.readInt());
+		}
+		case Tags.I_NUMBER_LIST: {
+			final double[] ds = new double[_in.readInt()];
+			for (int i = 0; i < ds.length; i++) ds[i] = _in.readDouble();
+			return new NumberListLiteralInstruction(ds);
+		}
+		case Tags.I_STRING_LITERAL:
+			return new StringLiteralInstruction(readString());
+		case Tags.I_INTERPOLATE: {
+			final String orig = readString();
+			return new InterpolateStringInstruction(orig, readInstructions());
+		}
+		case Tags.I_LAMBDA:
+			return new LambdaInstruction(readInstructions());
+		case Tags.I_LIST_BUILDER: {
+			final Block initial = readObj(Block.class);
+			final Block map = readObj(Block.class);
+			final Block[] filters = readBlocks();
+			return new ListBuilderInstruction(initial, map, filters, _in.readInt());
+		}
+		case Tags.I_TUPLE:
+			return new TupleInstruction(readBlocks());
+		case Tags.I_POP_VAR:
+			return PopVarFlagInstruction.INSTANCE;
+		case Tags.I_POP_CALLSTACK:
+			return PopCallstackInstruction.INSTANCE;
+		case Tags.I_HEADER: {
+			final BlockHeader bh = new BlockHeader(readObj(Dict.class));
+			final BlockHeaderArg[] args = new BlockHeaderArg[_in.readInt()];
+			for (int i = 0; i < args.length; i++) {
+				final Symbol var = readSymbol();
+				final Symbol type = readSymbol();
+				args[i] = new BlockHeaderArg(var, type, _in.readBoolean());
+			}
+			// addArg adds to the front
+			for (int i = args.length - 1; i >= 0; i--) bh.addArg(args[i]);
+			return bh;
+		}
+		case Tags.I_GET_NUMBER_INDEX:
+			return new GetNumberIndexInstruction(_in.readInt());
+		case Tags.I_GET_OBJ_INDEX:
+			return new GetObjIndexInstruction(readObj());
+		case Tags.I_GET_VAR_INDEX:
+			return new GetVarIndexInstruction(readSymbol());
+		case Tags.I_GET_EXPR_INDEX:
+			return new GetExprIndexInstruction(readObj(Block.class));
+		case Tags.I_ANON_GET_INDEX:
+			return new AnonGetIndexInstruction();
+		case Tags.I_SET_NUMBER_INDEX:
+			return new SetNumberIndexInstruction(_in.readInt());
+		case Tags.I_SET_OBJ_INDEX:
+			return new SetObjIndexInstruction(readObj());
+		case Tags.I_SET_VAR_INDEX:
+			return new SetVarIndexInstruction(readSymbol());
+		case Tags.I_SET_EXPR_INDEX:
+			return new SetExprIndexInstruction(readObj(Block.class));
+		default:
+			throw bad("instruction tag " + tag);
+		}
+	}
+
+	private static IOException bad(String msg) {
+		return new IOException("Malformed data: " + msg);
+	}
+}
@@ -0,0 +1,367 @@
+package aya.codec;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import aya.Aya;
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.DataInstruction;
+import aya.instruction.DictLiteralInstruction;
+import aya.instruction.EmptyDictLiteralInstruction;
+import aya.instruction.EmptyListLiteralInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.InstructionStack;
+import aya.instruction.InterpolateStringInstruction;
+import aya.instruction.LambdaInstruction;
+import aya.instruction.ListBuilderInstruction;
+import aya.instruction.ListLiteralInstruction;
+import aya.instruction.NumberListLiteralInstruction;
+import aya.instruction.StringLiteralInstruction;
+import aya.instruction.TupleInstruction;
+import aya.instruction.flag.PopCallstackInstruction;
+import aya.instruction.flag.PopVarFlagInstruction;
+import aya.instruction.index.AnonGetIndexInstruction;
+import aya.instruction.index.GetExprIndexInstruction;
+import aya.instruction.index.GetNumberIndexInstruction;
+import aya.instruction.index.GetObjIndexInstruction;
+import aya.instruction.index.GetVarIndexInstruction;
+import aya.instruction.index.SetExprIndexInstruction;
+import aya.instruction.index.SetNumberIndexInstruction;
+import aya.instruction.index.SetObjIndexInstruction;
+import aya.instruction.index.SetVarIndexInstruction;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.op.OpInstruction;
+import aya.instruction.variable.GetCDictInstruction;
+import aya.instruction.variable.GetKeyVariableInstruction;
+import aya.instruction.variable.GetVariableInstruction;
+import aya.instruction.variable.QuoteGetKeyVariableInstruction;
+import aya.instruction.variable.QuoteGetVariableInstruction;
+import aya.instruction.variable.SetKeyVariableInstruction;
+import aya.instruction.variable.SetVariableInstruction;
+import aya.instruction.variable.VariableInstruction;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.block.BlockHeader;
+import aya.obj.block.BlockHeaderArg;
+import aya.obj.character.Char;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.number.BigNum;
+import aya.obj.number.FractionNum;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+
+/**
+ * Writes objects and compiled instructions in a compact binary format that
+ * can be read back with {@link ObjReader} without running the parser.
+ *
+ * Dicts, lists and blocks are written once and referred to by id after
+ * that, so shared and cyclic values keep their identity. Operators, named
+ * instructions and symbols are written by name. Anything else (Java
+ * objects, images, complex numbers, ...) cannot be written and raises an
+ * IOException.
+ */
+public class ObjWriter {
+
+	private final DataOutputStream _out;
+	private final IdentityHashMap<Obj, Integer> _ids = new IdentityHashMap<Obj, Integer>();
+	private final HashMap<Integer, Integer> _symbols = new HashMap<Integer, Integer>();
+	private final SymbolTable _symbolTable = Aya.getInstance().getSymbols();
+
+	public ObjWriter(OutputStream out) {
+		_out = new DataOutputStream(out);
+	}
+
+	/**
+	 * Give the objects the first ids without writing them. The reader must
+	 * register the same objects in the same order with {@link ObjReader#preassign}
+	 */
+	public void preassign(Obj... objs) {
+		for (Obj o : objs) _ids.put(o, _ids.size());
+	}
+
+	public void writeInt(int i) throws IOException {
+		_out.writeInt(i);
+	}
+
+	public void writeLong(long l) throws IOException {
+		_out.writeLong(l);
+	}
+
+	public void writeBytes(byte[] bytes) throws IOException {
+		_out.writeInt(bytes.length);
+		_out.write(bytes);
+	}
+
+	public void writeString(String s) throws IOException {
+		// Not writeUTF, it is limited to 64KB
+		writeBytes(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void writeStrings(ArrayList<String> strs) throws IOException {
+		_out.writeInt(strs.size());
+		for (String s : strs) writeString(s);
+	}
+
+	public void writeSymbol(Symbol sym) throws IOException {
+		final Integer id = _symbols.get(sym.id());
+		if (id == null) {
+			_symbols.put(sym.id(), _symbols.size());
+			_out.writeByte(Tags.SYM_NEW);
+			writeString(_symbolTable.getName(sym));
+		} else {
+			_out.writeByte(Tags.SYM_REF);
+			_out.writeInt(id);
+		}
+	}
+
+	/** Write the key-value pairs of a dict passed to {@link #preassign} */
+	public void writeDictContents(Dict dict) throws IOException {
+		final Map<Symbol, Obj> map = dict.getMap();
+		_out.writeInt(map.size());
+		for (Map.Entry<Symbol, Obj> e : map.entrySet()) {
+			writeSymbol(e.getKey());
+			writeObj(e.getValue());
+		}
+	}
+
+	public void writeObj(Obj o) throws IOException {
+		if (o == null) {
+			_out.writeByte(Tags.NULL);
+			return;
+		}
+
+		final Integer id = _ids.get(o);
+		if (id != null) {
+			_out.writeByte(Tags.REF);
+			_out.writeInt(id);
+			return;
+		}
+
+		final Class<?> c = o.getClass();
+		if (c == Num.class) {
+			_out.writeByte(Tags.NUM);
+			_out.writeDouble(((Num)o).toDouble());
+		} else if (c == BigNum.class) {
+			_out.writeByte(Tags.BIGNUM);
+			writeString(((BigNum)o).toBigDecimal().toString());
+		} else if (c == FractionNum.class) {
+			_out.writeByte(Tags.FRACTION);
+			writeString(((FractionNum)o).numerator().toString());
+			writeString(((FractionNum)o).denominator().toString());
+		} else if (c == Char.class) {
+			_out.writeByte(Tags.CHAR);
+			_out.writeChar(((Char)o).charValue());
+		} else if (c == Symbol.class) {
+			_out.writeByte(Tags.SYMBOL);
+			writeSymbol((Symbol)o);
+		} else if (c == List.class) {
+			writeList((List)o);
+		} else if (c == Dict.class) {
+			_ids.put(o, _ids.size());
+			_out.writeByte(Tags.DICT);
+			writeDictContents((Dict)o);
+		} else if (c == Block.class) {
+			final Block b = (Block)o;
+			_ids.put(o, _ids.size());
+			_out.writeByte(Tags.BLOCK);
+			writeInstructions(b.getInstructions());
+			_out.writeInt(b.getStack().size());
+			for (Obj item : b.getStack()) writeObj(item);
+		} else {
+			throw unsupported(o);
+		}
+	}
+
+	private void writeList(List list) throws IOException {
+		switch (list.type()) {
+		case Obj.STR:
+			_ids.put(list, _ids.size());
+			_out.writeByte(Tags.STR);
+			writeString(list.str());
+			break;
+		case Obj.DOUBLELIST:
+			final double[] ds = list.toNumberList().todoubleArray();
+			_ids.put(list, _ids.size());
+			_out.writeByte(Tags.DOUBLELIST);
+			_out.writeInt(ds.length);
+			for (double d : ds) _out.writeDouble(d);
+			break;
+		case Obj.OBJLIST:
+		case Obj.NUMBERITEMLIST:
+			_ids.put(list, _ids.size());
+			_out.writeByte(Tags.LIST);
+			_out.writeInt(list.length());
+			for (int i = 0; i < list.length(); i++) writeObj(list.getExact(i));
+			break;
+		default:
+			throw unsupported(list);
+		}
+	}
+
+	private void writeBlocks(Block[] blocks) throws IOException {
+		if (blocks == null) {
+			_out.writeInt(-1);
+		} else {
+			_out.writeInt(blocks.length);
+			for (Block b : blocks) writeObj(b);
+		}
+	}
+
+	public void writeInstructions(InstructionStack is) throws IOException {
+		final ArrayList<Instruction> instructions = is.getInstrucionList();
+		_out.writeInt(instructions.size());
+		for (Instruction i : instructions) writeInstruction(i);
+	}
+
+	private void writeInstruction(Instruction i) throws IOException {
+		final Class<?> c = i.getClass();
+
+		if (c == DataInstruction.class) {
+			_out.writeByte(Tags.I_DATA);
+			writeObj(((DataInstruction)i).getData());
+		} else if (i instanceof OpInstruction) {
+			final OpInstruction op = (OpInstruction)i;
+			final OpInstruction found = ObjReader.opFromName(op.name);
+			if (found == null || found.getClass() != c) throw unsupported(i);
+			_out.writeByte(Tags.I_OP);
+			writeString(op.name);
+		} else if (i instanceof NamedInstruction) {
+			final String name = ((NamedInstruction)i).getName();
+			if (Aya.getInstance().getNamedInstruction(name) != i) throw unsupported(i);
+			_out.writeByte(Tags.I_NAMED);
+			writeString(name);
+		} else if (c == GetVariableInstruction.class) {
+			writeVar(Tags.I_GET_VAR, i);
+		} else if (c == GetKeyVariableInstruction.class) {
+			writeVar(Tags.I_GET_KEY_VAR, i);
+		} else if (c == SetVariableInstruction.class) {
+			writeVar(Tags.I_SET_VAR, i);
+		} else if (c == SetKeyVariableInstruction.class) {
+			writeVar(Tags.I_SET_KEY_VAR, i);
+		} else if (c == QuoteGetVariableInstruction.class) {
+			writeVar(Tags.I_QUOTE_GET_VAR, i);
+		} else if (c == QuoteGetKeyVariableInstruction.class) {
+			writeVar(Tags.I_QUOTE_GET_KEY_VAR, i);
+		} else if (c == GetCDictInstruction.class) {
+			writeVar(Tags.I_GET_CDICT, i);
+		} else if (c == BlockLiteralInstruction.class) {
+			final BlockLiteralInstruction bl = (BlockLiteralInstruction)i;
+			_out.writeByte(Tags.I_BLOCK_LITERAL);
+			writeObj(bl.getRawBlock());
+			final HashMap<Symbol, Block> defaults = bl.getDefaults();
+			if (defaults == null) {
+				_out.writeInt(-1);
+			} else {
+				_out.writeInt(defaults.size());
+				for (Map.Entry<Symbol, Block> e : defaults.entrySet()) {
+					writeSymbol(e.getKey());
+					writeObj(e.getValue());
+				}
+			}
+			_out.writeBoolean(bl.isAutoEval());
+		} else if (c == DictLiteralInstruction.class) {
+			final DictLiteralInstruction dl = (DictLiteralInstruction)i;
+			_out.writeByte(Tags.I_DICT_LITERAL);
+			writeObj(dl.getRawBlock());
+			_out.writeInt(dl.numCaptures());
+		} else if (i == EmptyDictLiteralInstruction.INSTANCE) {
+			_out.writeByte(Tags.I_EMPTY_DICT);
+		} else if (i == EmptyListLiteralInstruction.INSTANCE) {
+			_out.writeByte(Tags.I_EMPTY_LIST);
+		} else if (c == ListLiteralInstruction.class) {
+			final ListLiteralInstruction ll = (ListLiteralInstruction)i;
+			_out.writeByte(Tags.I_LIST_LITERAL);
+			writeInstructions(ll.getInstructions());
+			_out.writeInt(ll.getPops());
+		} else if (c == NumberListLiteralInstruction.class) {
+			final double[] ds = ((NumberListLiteralInstruction)i).getValues();
+			_out.writeByte(Tags.I_NUMBER_LIST);
+			_out.writeInt(ds.length);
+			for (double d : ds) _out.writeDouble(d);
+		} else if (c == StringLiteralInstruction.class) {
+			_out.writeByte(Tags.I_STRING_LITERAL);
+			writeString(((StringLiteralInstruction)i).getString());
+		} else if (c == InterpolateStringInstruction.class) {
+			final InterpolateStringInstruction is = (InterpolateStringInstruction)i;
+			_out.writeByte(Tags.I_INTERPOLATE);
+			writeString(is.getOriginal());
+			writeInstructions(is.getInstructions());
+		} else if (c == LambdaInstruction.class) {
+			_out.writeByte(Tags.I_LAMBDA);
+			writeInstructions(((LambdaInstruction)i).getInstructions());
+		} else if (c == ListBuilderInstruction.class) {
+			final ListBuilderInstruction lb = (ListBuilderInstruction)i;
+			_out.writeByte(Tags.I_LIST_BUILDER);
+			writeObj(lb.getInitialList());
+			writeObj(lb.getMap());
+			writeBlocks(lb.getFilters());
+			_out.writeInt(lb.numCaptures());
+		} else if (c == TupleInstruction.class) {
+			_out.writeByte(Tags.I_TUPLE);
+			writeBlocks(((TupleInstruction)i).getElements());
+		} else if (i == PopVarFlagInstruction.INSTANCE) {
+			_out.writeByte(Tags.I_POP_VAR);
+		} else if (i == PopCallstackInstruction.INSTANCE) {
+			_out.writeByte(Tags.I_POP_CALLSTACK);
+		} else if (c == BlockHeader.class) {
+			final BlockHeader bh = (BlockHeader)i;
+			_out.writeByte(Tags.I_HEADER);
+			writeObj(bh.getVars());
+			_out.writeInt(bh.getArgs().size());
+			for (BlockHeaderArg arg : bh.getArgs()) {
+				writeSymbol(arg.var);
+				writeSymbol(arg.type);
+				_out.writeBoolean(arg.copy);
+			}
+		} else if (c == GetNumberIndexInstruction.class) {
+			_out.writeByte(Tags.I_GET_NUMBER_INDEX);
+			_out.writeInt(((GetNumberIndexInstruction)i).getIntIndex());
+		} else if (c == GetObjIndexInstruction.class) {
+			_out.writeByte(Tags.I_GET_OBJ_INDEX);
+			writeObj(((GetObjIndexInstruction)i).getObjIndex());
+		} else if (c == GetVarIndexInstruction.class) {
+			_out.writeByte(Tags.I_GET_VAR_INDEX);
+			writeSymbol(((GetVarIndexInstruction)i).getSymbol());
+		} else if (c == GetExprIndexInstruction.class) {
+			_out.writeByte(Tags.I_GET_EXPR_INDEX);
+			writeObj(((GetExprIndexInstruction)i).getIndexBlock());
+		} else if (c == AnonGetIndexInstruction.class) {
+			_out.writeByte(Tags.I_ANON_GET_INDEX);
+		} else if (c == SetNumberIndexInstruction.class) {
+			_out.writeByte(Tags.I_SET_NUMBER_INDEX);
+			_out.writeInt(((SetNumberIndexInstruction)i).getIntIndex());
+		} else if (c == SetObjIndexInstruction.class) {
+			_out.writeByte(Tags.I_SET_OBJ_INDEX);
+			writeObj(((SetObjIndexInstruction)i).getObjIndex());
+		} else if (c == SetVarIndexInstruction.class) {
+			_out.writeByte(Tags.I_SET_VAR_INDEX);
+			writeSymbol(((SetVarIndexInstruction)i).getSymbol());
+		} else if (c == SetExprIndexInstruction.class) {
+			_out.writeByte(Tags.I_SET_EXPR_INDEX);
+			writeObj(((SetExprIndexInstruction)i).getIndexBlock());
+		} else {
+			throw unsupported(i);
+		}
+	}
+
+	private void writeVar(byte tag, Instruction i) throws IOException {
+		_out.writeByte(tag);
+		writeSymbol(((VariableInstruction)i).getSymbol());
+	}
+
+	public void flush() throws IOException {
+		_out.flush();
+	}
+
+	private static IOException unsupported(Object o) {
+		return new IOException("Cannot encode " + o.getClass().getName());
+	}
+}
@@ -0,0 +1,182 @@
+package aya.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import aya.Aya;
+import aya.AyaPrefs;
+import aya.obj.Obj;
+import aya.obj.dict.Dict;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolTable;
+
+/**
+ * Snapshot of the global variables after the standard library has been
+ * loaded. Restoring the snapshot replaces parsing and running ayarc.aya
+ * and every std module on startup.
+ *
+ * The snapshot is stored in <code>&lt;aya dir&gt;/.cache</code> and is
+ * tagged with a hash of the Aya version, the interpreter build and the
+ * contents of ayarc.aya and the base and std directories. If any of them
+ * change the snapshot is ignored and written again on the next startup.
+ */
+public class StdlibSnapshot {
+
+	private static final String FILE_NAME = "stdlib.snapshot";
+
+	private static Path snapshotPath() {
+		return Paths.get(AyaPrefs.getAyaDir(), ".cache", FILE_NAME);
+	}
+
+	/**
+	 * Restore the snapshot into the root dicts. Return false if there is no
+	 * valid snapshot, in which case the root dicts are left unchanged
+	 */
+	public static boolean restore(Aya aya) {
+		final byte[] data;
+		final byte[] hash;
+		try {
+			data = Files.readAllBytes(snapshotPath());
+			hash = fingerprint(aya);
+		} catch (IOException e) {
+			return false;
+		}
+
+		final Dict[] roots = aya.getVars().getRootDicts();
+		final ArrayList<HashMap<Symbol, Obj>> backup = new ArrayList<HashMap<Symbol, Obj>>();
+		for (Dict d : roots) backup.add(new HashMap<Symbol, Obj>(d.getMap()));
+
+		try {
+			final ObjReader in = new ObjReader(new ByteArrayInputStream(data));
+			if (in.readInt() != Tags.MAGIC || in.readInt() != Tags.FORMAT_VERSION) return false;
+			if (!Arrays.equals(in.readBytes(), hash)) return false;
+
+			// Create the symbols in the same order so they get the same ids
+			// and dicts iterate in the same order as after a normal startup
+			final SymbolTable symbols = aya.getSymbols();
+			final ArrayList<String> names = in.readStrings();
+			for (int i = 0; i < names.size(); i++) {
+				if (symbols.getSymbol(names.get(i)).id() != i + 1) return false;
+			}
+
+			final ArrayList<String> help = in.readStrings();
+			in.preassign(roots);
+			for (Dict d : roots) in.readDictContents(d);
+
+			for (String s : help) aya.addHelpText(s);
+			return true;
+		} catch (IOException | RuntimeException e) {
+			// Put the root dicts back the way they were
+			for (int i = 0; i < roots.length; i++) {
+				roots[i].clear();
+				for (Map.Entry<Symbol, Obj> entry : backup.get(i).entrySet()) {
+					roots[i].set(entry.getKey(), entry.getValue());
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Write the root dicts and the help text added while loading the
+	 * standard library. If anything in the globals cannot be written, or the
+	 * aya dir is not writable, no snapshot is saved
+	 */
+	public static void save(Aya aya, ArrayList<String> help) {
+		try {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+			final ObjWriter out = new ObjWriter(bytes);
+			out.writeInt(Tags.MAGIC);
+			out.writeInt(Tags.FORMAT_VERSION);
+			out.writeBytes(fingerprint(aya));
+
+			out.writeStrings(aya.getSymbols().getNames());
+			out.writeStrings(help);
+			final Dict[] roots = aya.getVars().getRootDicts();
+			out.preassign(roots);
+			for (Dict d : roots) out.writeDictContents(d);
+			out.flush();
+
+			writeAtomically(snapshotPath(), bytes.toByteArray());
+		} catch (IOException | RuntimeException e) {
+			// The snapshot is only an optimization
+		}
+	}
+
+	/**
+	 * Write the current contents of the root dicts. Used by the daemon to
+	 * give every request a fresh copy of the globals. Throws an IOException
+	 * if the globals contain objects which cannot be written
+	 */
+	public static byte[] captureGlobals(Aya aya) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+		final ObjWriter out = new ObjWriter(bytes);
+		final Dict[] roots = aya.getVars().getRootDicts();
+		out.preassign(roots);
+		for (Dict d : roots) out.writeDictContents(d);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/** Replace the contents of the root dicts with new copies of the objects written by {@link #captureGlobals} */
+	public static void restoreGlobals(Aya aya, byte[] globals) throws IOException {
+		final ObjReader in = new ObjReader(new ByteArrayInputStream(globals));
+		final Dict[] roots = aya.getVars().getRootDicts();
+		in.preassign(roots);
+		for (Dict d : roots) in.readDictContents(d);
+	}
+
+	/**
+	 * Write to a temp file and rename it so other processes never see a
+	 * partial file. On POSIX systems the file is only readable by the owner
+	 */
+	public static void writeAtomically(Path path, byte[] bytes) throws IOException {
+		Files.createDirectories(path.getParent());
+		final Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+		try {
+			Files.write(tmp, bytes);
+			Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+	}
+
+	/** SHA-256 of everything the contents of the snapshot depend on */
+	private static byte[] fingerprint(Aya aya) throws IOException {
+		final MessageDigest md = Fingerprint.sha256();
+		final String ayaDir = AyaPrefs.getAyaDir();
+		Fingerprint.update(md, Fingerprint.buildStamp());
+		Fingerprint.update(md, ayaDir);
+
+		final ArrayList<Path> files = new ArrayList<Path>();
+		files.add(Paths.get(ayaDir, Aya.ayarcPath));
+		for (String dir : new String[] {"base", "std"}) {
+			final Path root = Paths.get(ayaDir, dir);
+			if (!Files.isDirectory(root)) continue;
+			try (Stream<Path> s = Files.walk(root)) {
+				files.addAll(s.filter(p -> p.toString().endsWith(".aya"))
+				              .sorted()
+				              .collect(Collectors.toList()));
+			}
+		}
+		for (Path p : files) {
+			Fingerprint.update(md, p.toString());
+			md.update(Files.readAllBytes(p));
+		}
+
+		return md.digest();
+	}
+}
@@ -0,0 +1,67 @@
+package aya.codec;
+
+/**
+ * Type tags of the binary format written by {@link ObjWriter} and read by
+ * {@link ObjReader}. Bump {@link #FORMAT_VERSION} whenever the meaning of a
+ * tag changes or the parser changes the instructions it generates.
+ */
+final class Tags {
+
+	private Tags() { }
+
+	static final int MAGIC = 0x41594131; // "AYA1"
+	static final int FORMAT_VERSION = 3;
+
+	// Objects
+	static final byte NULL       = 0;
+	static final byte REF        = 1;
+	static final byte NUM        = 2;
+	static final byte BIGNUM     = 3;
+	static final byte FRACTION   = 4;
+	static final byte CHAR       = 5;
+	static final byte SYMBOL     = 6;
+	static final byte STR        = 7;
+	static final byte DOUBLELIST = 8;
+	static final byte LIST       = 9;
+	static final byte DICT       = 10;
+	static final byte BLOCK      = 11;
+
+	// Symbols
+	static final byte SYM_NEW = 0;
+	static final byte SYM_REF = 1;
+
+	// Instructions
+	static final byte I_DATA              = 1;
+	static final byte I_OP                = 2;
+	static final byte I_NAMED             = 3;
+	static final byte I_GET_VAR           = 4;
+	static final byte I_GET_KEY_VAR       = 5;
+	static final byte I_SET_VAR           = 6;
+	static final byte I_SET_KEY_VAR       = 7;
+	static final byte I_QUOTE_GET_VAR     = 8;
+	static final byte I_QUOTE_GET_KEY_VAR = 9;
+	static final byte I_GET_CDICT         = 10;
+	static final byte I_BLOCK_LITERAL     = 11;
+	static final byte I_DICT_LITERAL      = 12;
+	static final byte I_EMPTY_DICT        = 13;
+	static final byte I_EMPTY_LIST        = 14;
+	static final byte I_LIST_LITERAL      = 15;
+	static final byte I_STRING_LITERAL    = 16;
+	static final byte I_INTERPOLATE       = 17;
+	static final byte I_LAMBDA            = 18;
+	static final byte I_LIST_BUILDER      = 19;
+	static final byte I_TUPLE             = 20;
+	static final byte I_POP_VAR           = 21;
+	static final byte I_POP_CALLSTACK     = 22;
+	static final byte I_HEADER            = 23;
+	static final byte I_GET_NUMBER_INDEX  = 24;
+	static final byte I_GET_OBJ_INDEX     = 25;
+	static final byte I_GET_VAR_INDEX     = 26;
+	static final byte I_GET_EXPR_INDEX    = 27;
+	static final byte I_ANON_GET_INDEX    = 28;
+	static final byte I_SET_NUMBER_INDEX  = 29;
+	static final byte I_SET_OBJ_INDEX     = 30;
+	static final byte I_SET_VAR_INDEX     = 31;
+	static final byte I_SET_EXPR_INDEX    = 32;
+	static final byte I_NUMBER_LIST       = 33;
+}
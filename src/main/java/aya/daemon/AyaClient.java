@@ -0,0 +1,116 @@
+package aya.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Sends a script to a running {@link AyaDaemon} and forwards the working
+ * directory, the arguments, stdin, stdout and stderr.
+ */
+public class AyaClient {
+
+	/** Returned by {@link #run} if no daemon is running */
+	public static final int NO_DAEMON = -1;
+
+	private static final int CONNECT_TIMEOUT_MS = 1000;
+
+	/**
+	 * Run the script on the daemon. args[0] is the script file, the rest are
+	 * its arguments. Return the exit code, or {@link #NO_DAEMON}
+	 */
+	public static int run(String[] args) {
+		final String[] info;
+		final int port;
+		try {
+			info = new String(Files.readAllBytes(AyaDaemon.infoPath()), StandardCharsets.UTF_8).trim().split(" ");
+			port = Integer.parseInt(info[0]);
+		} catch (IOException | RuntimeException e) {
+			return NO_DAEMON;
+		}
+		if (info.length != 2) return NO_DAEMON;
+
+		final Socket socket = new Socket();
+		try {
+			socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MS);
+		} catch (IOException | RuntimeException e) {
+			// Stale file from a daemon which was killed
+			try {
+				socket.close();
+			} catch (IOException e2) { }
+			return NO_DAEMON;
+		}
+
+		try (socket) {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+			synchronized (out) {
+				out.writeUTF(info[1]);
+				out.writeUTF(Paths.get("").toAbsolutePath().toString());
+				out.writeUTF(Charset.defaultCharset().name());
+				out.writeInt(args.length);
+				for (String a : args) out.writeUTF(a);
+				out.flush();
+			}
+
+			final Thread stdin = new Thread(() -> forwardStdin(System.in, out));
+			stdin.setDaemon(true);
+			stdin.start();
+
+			while (true) {
+				final byte type = in.readByte();
+				final byte[] payload = new byte[in.readInt()];
+				in.readFully(payload);
+				switch (type) {
+				case Frames.STDOUT:
+					write(System.out, payload);
+					break;
+				case Frames.STDERR:
+					write(System.err, payload);
+					break;
+				case Frames.EXIT:
+					System.out.flush();
+					System.err.flush();
+					return ByteBuffer.wrap(payload).getInt();
+				default:
+					throw new IOException("Unexpected frame type from the daemon");
+				}
+			}
+		} catch (IOException e) {
+			System.out.flush();
+			System.err.println("Lost connection to the aya daemon: " + e.getMessage());
+			return 1;
+		}
+	}
+
+	private static void write(PrintStream ps, byte[] b) {
+		ps.write(b, 0, b.length);
+		ps.flush();
+	}
+
+	private static void forwardStdin(InputStream is, DataOutputStream out) {
+		final byte[] buf = new byte[8192];
+		try {
+			int n;
+			while ((n = is.read(buf)) >= 0) {
+				if (n > 0) Frames.write(out, Frames.STDIN, buf, 0, n);
+			}
+			Frames.write(out, Frames.STDIN, buf, 0, 0);
+		} catch (IOException e) {
+			// The script finished without reading all of stdin
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package aya.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import aya.Aya;
+import aya.AyaPrefs;
+import aya.InteractiveAya;
+import aya.codec.StdlibSnapshot;
+
+/**
+ * Long running interpreter which runs scripts sent by {@link AyaClient}, so
+ * running a script does not pay for JVM startup and loading the standard
+ * library.
+ *
+ * The daemon listens on a loopback port. The port and a random token are
+ * written to <code>&lt;aya dir&gt;/.cache/daemon</code>, which is only
+ * readable by the owner, and a client must send the token with each
+ * request. Requests are run one at a time. Before each one the globals are
+ * replaced with a fresh copy of the globals taken just after the standard
+ * library was loaded, the working directory is set to the client's and
+ * the globals which depend on it are computed again.
+ *
+ * If the client closes the connection before its script finishes, the
+ * script is stopped at its next instruction. A script which never finishes
+ * while its client stays connected blocks the requests after it.
+ */
+public class AyaDaemon {
+
+	/** Exit code sent to the client, the same as a script run by InteractiveAya.main */
+	private static final int EXIT_CODE = 1;
+
+	private static final int MAX_ARGS = 1 << 16;
+
+	static Path infoPath() {
+		return Paths.get(AyaPrefs.getAyaDir(), ".cache", "daemon");
+	}
+
+	/** Load the standard library and serve requests until the process is killed */
+	public static void serve(Aya aya) throws IOException {
+		aya.start();
+		synchronized (aya) {
+			aya.loadAyarc();
+			waitFor(aya);
+		}
+		final byte[] globals = StdlibSnapshot.captureGlobals(aya);
+
+		final byte[] token_bytes = new byte[32];
+		new SecureRandom().nextBytes(token_bytes);
+		final StringBuilder token = new StringBuilder();
+		for (byte b : token_bytes) token.append(String.format("%02x", b));
+
+		try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+			final Path info = infoPath();
+			final byte[] info_bytes = (server.getLocalPort() + " " + token + "\n").getBytes(StandardCharsets.UTF_8);
+			StdlibSnapshot.writeAtomically(info, info_bytes);
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					// Do not remove the file of a daemon started after this one
+					if (Arrays.equals(Files.readAllBytes(info), info_bytes)) Files.delete(info);
+				} catch (IOException e) {
+					// Already removed
+				}
+			}));
+			aya.getErr().println("aya daemon listening on port " + server.getLocalPort());
+
+			while (true) {
+				try (Socket socket = server.accept()) {
+					handle(aya, socket, token.toString(), globals);
+				} catch (IOException e) {
+					System.err.println("aya daemon: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private static void handle(Aya aya, Socket socket, String token, byte[] globals) throws IOException {
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+		final byte[] client_token = in.readUTF().getBytes(StandardCharsets.UTF_8);
+		if (!MessageDigest.isEqual(client_token, token.getBytes(StandardCharsets.UTF_8))) {
+			throw new IOException("Rejected a request with an invalid token");
+		}
+		final String cwd = in.readUTF();
+		final Charset charset;
+		try {
+			charset = Charset.forName(in.readUTF());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid request");
+		}
+		final int argc = in.readInt();
+		if (argc < 1 || argc > MAX_ARGS) throw new IOException("Invalid request");
+		final String[] args = new String[argc];
+		for (int i = 0; i < argc; i++) args[i] = in.readUTF();
+
+		// A stop requested by an earlier request has already taken effect
+		Aya.clearStop();
+		final Request request = new Request();
+
+		// Encode output the same way the client's System.out would
+		aya.setOut(new PrintStream(new Frames.FrameOutputStream(out, Frames.STDOUT), true, charset));
+		aya.setErr(new PrintStream(new Frames.FrameOutputStream(out, Frames.STDERR), true, charset));
+		aya.setIn(new Frames.FrameInputStream(in, request::stopIfRunning));
+		final PrintStream err = aya.getErr();
+		try {
+			StdlibSnapshot.restoreGlobals(aya, globals);
+			if (!args[0].contains(".aya")) {
+				err.println("usage: aya -client script.aya [arg1 arg2 ...]");
+			} else if (!AyaPrefs.setWorkingDir(cwd)) {
+				err.println("Invalid working directory: " + cwd);
+			} else {
+				final String filename = Paths.get(cwd).resolve(args[0]).toString();
+				String script = null;
+				try {
+					script = InteractiveAya.readScript(filename, Arrays.copyOfRange(args, 1, args.length));
+				} catch (IOException e) {
+					err.println("Cannot find file: " + args[0]);
+					err.println(e.getMessage());
+				}
+				if (script != null) {
+					synchronized (aya) {
+						aya.queueInput(Aya.RUN_RESTORE_HOOKS);
+						aya.queueInput(script);
+						waitFor(aya);
+					}
+				}
+			}
+			aya.getOut().flush();
+			err.flush();
+			Frames.writeExit(out, EXIT_CODE);
+		} finally {
+			request.finish();
+			// Ends the reader thread of the FrameInputStream
+			try {
+				socket.shutdownInput();
+			} catch (IOException e) {
+				// Already closed by the client
+			}
+			aya.setOut(System.out);
+			aya.setErr(System.err);
+			aya.setIn(System.in);
+		}
+	}
+
+	/** Stops the script when the client disconnects, until the request is finished */
+	private static class Request {
+		private boolean _running = true;
+
+		synchronized void stopIfRunning() {
+			if (_running) Aya.requestStop();
+		}
+
+		/** After this, a disconnect does not stop the input of later requests */
+		synchronized void finish() {
+			_running = false;
+		}
+	}
+
+	/** Wait for aya to finish running its queued input. Must hold the lock on aya */
+	private static void waitFor(Aya aya) throws IOException {
+		try {
+			aya.wait();
+		} catch (InterruptedException e) {
+			throw new IOException("Interrupted", e);
+		}
+	}
+}
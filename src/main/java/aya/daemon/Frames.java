@@ -0,0 +1,141 @@
+package aya.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Wire format between {@link AyaClient} and {@link AyaDaemon}.
+ *
+ * The client sends a request header: the token (UTF), the working
+ * directory (UTF), the charset of its stdout (UTF), the number of
+ * arguments (int) and the arguments (UTF).
+ * After that both sides send frames: a type byte, a length and the
+ * payload. The client sends STDIN frames (a 0 length frame is the end of
+ * the input), the daemon sends STDOUT and STDERR frames followed by a
+ * single EXIT frame whose payload is the exit code. The client closes the
+ * connection after the EXIT frame, if it closes it earlier the daemon stops
+ * the script.
+ */
+final class Frames {
+
+	private Frames() { }
+
+	static final byte STDIN  = 0;
+	static final byte STDOUT = 1;
+	static final byte STDERR = 2;
+	static final byte EXIT   = 3;
+
+	/** Write a frame. Frames from different threads are never interleaved */
+	static void write(DataOutputStream out, byte type, byte[] b, int off, int len) throws IOException {
+		synchronized (out) {
+			out.writeByte(type);
+			out.writeInt(len);
+			out.write(b, off, len);
+			out.flush();
+		}
+	}
+
+	static void writeExit(DataOutputStream out, int code) throws IOException {
+		synchronized (out) {
+			out.writeByte(EXIT);
+			out.writeInt(4);
+			out.writeInt(code);
+			out.flush();
+		}
+	}
+
+	/** Sends everything written to it as frames of the given type */
+	static class FrameOutputStream extends OutputStream {
+		private final DataOutputStream _out;
+		private final byte _type;
+
+		FrameOutputStream(DataOutputStream out, byte type) {
+			_out = out;
+			_type = type;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte)b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len > 0) Frames.write(_out, _type, b, off, len);
+		}
+	}
+
+	/**
+	 * Reads the payloads of STDIN frames. The frames are read from the
+	 * client on a separate thread, so the daemon notices a closed connection
+	 * even while the script is not reading its input. Frames the script has
+	 * not read yet are buffered without a limit, the reader never waits for
+	 * the script. When the connection or its input side is closed, the unread
+	 * input is dropped, the stream ends and onClose runs
+	 */
+	static class FrameInputStream extends InputStream {
+		private static final byte[] END = new byte[0];
+
+		private final BlockingQueue<byte[]> _frames = new LinkedBlockingQueue<byte[]>();
+		private byte[] _frame = END;
+		private int _pos = 0;
+		private boolean _eof = false;
+
+		FrameInputStream(DataInputStream in, Runnable onClose) {
+			final Thread reader = new Thread(() -> {
+				try {
+					while (true) {
+						if (in.readByte() != STDIN) throw new IOException("Unexpected frame type from the client");
+						final int len = in.readInt();
+						if (len < 0) throw new IOException("Invalid frame from the client");
+						final byte[] b = new byte[len];
+						in.readFully(b);
+						_frames.add(b);
+					}
+				} catch (IOException e) {
+					// Closed by the client or after the request
+				} finally {
+					_frames.clear();
+					_frames.add(END);
+					onClose.run();
+				}
+			}, "aya daemon client reader");
+			reader.setDaemon(true);
+			reader.start();
+		}
+
+		private boolean nextFrame() throws IOException {
+			while (_pos == _frame.length && !_eof) {
+				try {
+					_frame = _frames.take();
+				} catch (InterruptedException e) {
+					throw new IOException("Interrupted", e);
+				}
+				_pos = 0;
+				if (_frame.length == 0) _eof = true;
+			}
+			return !_eof;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!nextFrame()) return -1;
+			return _frame[_pos++] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) return 0;
+			if (!nextFrame()) return -1;
+			final int n = Math.min(len, _frame.length - _pos);
+			System.arraycopy(_frame, _pos, b, off, n);
+			_pos += n;
+			return n;
+		}
+	}
+}
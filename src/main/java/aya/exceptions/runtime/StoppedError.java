@@ -0,0 +1,15 @@
+package aya.exceptions.runtime;
+
+/**
+ * Thrown when another thread asks the interpreter to stop the running
+ * input, see {@link aya.Aya#requestStop()}. It is not an
+ * AyaRuntimeException, so aya code cannot catch it
+ */
+@SuppressWarnings("serial")
+public class StoppedError extends RuntimeException {
+
+	public StoppedError() {
+		super("Stopped");
+	}
+
+}
@@ -0,0 +1,66 @@
+package aya.ext.fold;
+
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionStore;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.ListFolds;
+import aya.util.Casting;
+
+public class FoldInstructionStore extends NamedInstructionStore {
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedInstruction("fold.left", "L B: fold from the left, [a b c] => (a B b) B c") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj l = block.pop();
+				if (!l.isa(Obj.LIST) || !b.isa(Obj.BLOCK)) {
+					throw new TypeError(this, "LB", b, l);
+				}
+				block.push(ListFolds.foldl(Casting.asList(l), Casting.asBlock(b)));
+			}
+		});
+
+		addInstruction(new NamedInstruction("fold.right", "L B: fold from the right, [a b c] => a B (b B c)") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj l = block.pop();
+				if (!l.isa(Obj.LIST) || !b.isa(Obj.BLOCK)) {
+					throw new TypeError(this, "LB", b, l);
+				}
+				block.push(ListFolds.foldr(Casting.asList(l), Casting.asBlock(b)));
+			}
+		});
+
+		addInstruction(new NamedInstruction("fold.reduce", "L A B: fold from the left starting with A, [a b c] => ((A B a) B b) B c") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj init = block.pop();
+				final Obj l = block.pop();
+				if (!l.isa(Obj.LIST) || !b.isa(Obj.BLOCK)) {
+					throw new TypeError(this, "LAB", b, init, l);
+				}
+				block.push(ListFolds.foldl(Casting.asList(l), init, Casting.asBlock(b)));
+			}
+		});
+
+		addInstruction(new NamedInstruction("fold.scan", "L B: list of the intermediate results of a left fold, [a b c] => [a (a B b) ((a B b) B c)]") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj l = block.pop();
+				if (!l.isa(Obj.LIST) || !b.isa(Obj.BLOCK)) {
+					throw new TypeError(this, "LB", b, l);
+				}
+				block.push(ListFolds.scan(Casting.asList(l), Casting.asBlock(b)));
+			}
+		});
+
+	}
+}
@@ -0,0 +1,60 @@
+package aya.ext.importlib;
+
+import static aya.util.Casting.asList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import aya.Aya;
+import aya.AyaPrefs;
+import aya.codec.ModuleCache;
+import aya.exceptions.ex.ParserException;
+import aya.exceptions.runtime.IOError;
+import aya.exceptions.runtime.InternalAyaRuntimeException;
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionStore;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+public class ImportlibInstructionStore extends NamedInstructionStore {
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedInstruction("importlib.compile", "S|S L: compile a source file to a block using the on-disk compiled module cache. If given a list of directories, prefetch the modules the file imports from them in the background") {
+			@Override
+			public void execute(Block block) {
+				Obj a = block.pop();
+				ArrayList<String> searchPath = null;
+				if (a.isa(Obj.LIST) && !a.isa(Obj.STR)) {
+					final List dirs = asList(a);
+					searchPath = new ArrayList<String>(dirs.length());
+					for (int i = 0; i < dirs.length(); i++) {
+						searchPath.add(dirs.getExact(i).str());
+					}
+					a = block.pop();
+				}
+				if (!a.isa(Obj.STR)) {
+					throw new TypeError(this, "S|S L", a);
+				}
+
+				String path = a.str();
+				if (!new File(path).isAbsolute()) {
+					path = AyaPrefs.getWorkingDir() + path;
+				}
+
+				try {
+					block.push(ModuleCache.compile(Aya.getInstance(), path, searchPath));
+				} catch (IOException e) {
+					throw new IOError(getName(), new File(path).getAbsolutePath(), e);
+				} catch (ParserException e) {
+					throw new InternalAyaRuntimeException(e.typeSymbol(), e);
+				}
+			}
+		});
+
+	}
+}
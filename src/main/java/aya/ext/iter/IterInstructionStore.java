@@ -0,0 +1,28 @@
+package aya.ext.iter;
+
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionStore;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.util.Casting;
+
+public class IterInstructionStore extends NamedInstructionStore {
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedInstruction("iter.collect", "D N: evaluate at most N items of an iter (all if N is negative)") {
+			@Override
+			public void execute(Block block) {
+				final Obj n = block.pop();
+				final Obj it = block.pop();
+				if (!n.isa(Obj.NUMBER)) {
+					throw new TypeError(this, "DN", n, it);
+				}
+				block.push(Pipeline.of(it).collect(Casting.asNumber(n).toInt()));
+			}
+		});
+
+	}
+}
@@ -0,0 +1,557 @@
+package aya.ext.iter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Stack;
+
+import aya.Aya;
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
+import aya.obj.dict.Dict;
+import aya.obj.list.List;
+import aya.obj.number.Num;
+import aya.obj.symbol.Symbol;
+import aya.obj.symbol.SymbolConstants;
+import aya.obj.symbol.SymbolTable;
+import aya.util.Casting;
+import aya.util.DictReader;
+
+/**
+ * Pull based evaluation of a lazy sequence (see std/iter.aya).
+ *
+ * An iter object is a dict with a source and a list of stages:
+ * <pre>
+ *   src:    [::list L] | [::range [start step stop]] | [::count [start step]] | [::gen G]
+ *         | [::perms L] | [::combs [L k]] | [::product [L1 L2 ...]] | [::powerset L]
+ *   stages: [[::map B] [::filter B] [::take N] [::takewhile B] [::zip iter] ...]
+ * </pre>
+ * Items are only computed when they are pulled with {@link #next()}.
+ *
+ * G is a dict <code>{obj items done}</code>. The items pulled from
+ * <code>obj.__next__</code> are saved in it, so every pipeline built from
+ * the same source sees the same items and the object is only advanced
+ * once.
+ */
+public abstract class Pipeline {
+	
+	private static final Symbol SRC;
+	private static final Symbol STAGES;
+	private static final Symbol LIST;
+	private static final Symbol RANGE;
+	private static final Symbol COUNT;
+	private static final Symbol GEN;
+	private static final Symbol PERMS;
+	private static final Symbol COMBS;
+	private static final Symbol PRODUCT;
+	private static final Symbol POWERSET;
+	private static final Symbol MAP;
+	private static final Symbol FILTER;
+	private static final Symbol TAKE;
+	private static final Symbol TAKEWHILE;
+	private static final Symbol ZIP;
+	private static final Symbol OBJ;
+	private static final Symbol ITEMS;
+	private static final Symbol DONE;
+	
+	static {
+		SymbolTable syms = Aya.getInstance().getSymbols();
+		SRC = syms.getSymbol("src");
+		STAGES = syms.getSymbol("stages");
+		LIST = syms.getSymbol("list");
+		RANGE = syms.getSymbol("range");
+		COUNT = syms.getSymbol("count");
+		GEN = syms.getSymbol("gen");
+		PERMS = syms.getSymbol("perms");
+		COMBS = syms.getSymbol("combs");
+		PRODUCT = syms.getSymbol("product");
+		POWERSET = syms.getSymbol("powerset");
+		MAP = syms.getSymbol("map");
+		FILTER = syms.getSymbol("filter");
+		TAKE = syms.getSymbol("take");
+		TAKEWHILE = syms.getSymbol("takewhile");
+		ZIP = syms.getSymbol("zip");
+		OBJ = syms.getSymbol("obj");
+		ITEMS = syms.getSymbol("items");
+		DONE = syms.getSymbol("done");
+	}
+	
+	/** Return the next item or null if the sequence is exhausted */
+	public abstract Obj next();
+	
+	/** Pull at most n items (all items if n is negative) */
+	public List collect(int n) {
+		ArrayList<Obj> out = new ArrayList<Obj>();
+		Obj o;
+		while ((n < 0 || out.size() < n) && (o = next()) != null) {
+			out.add(o);
+		}
+		return new List(out);
+	}
+	
+	
+	/** Build the pipeline for an iter object or a list */
+	public static Pipeline of(Obj o) {
+		if (o.isa(Obj.LIST)) {
+			return new ListSource(Casting.asList(o));
+		} else if (o.isa(Obj.DICT)) {
+			DictReader d = new DictReader(Casting.asDict(o), "iter");
+			Pipeline p = source(d.getListEx(SRC));
+			List stages = d.getListEx(STAGES);
+			for (int i = 0; i < stages.length(); i++) {
+				p = stage(p, stages.getExact(i));
+			}
+			return p;
+		} else {
+			throw new TypeError("iter: Expected list or iter, received " + o.repr());
+		}
+	}
+	
+	private static Pipeline source(List src) {
+		final Symbol kind = kind(src, "source");
+		final Obj arg = src.getExact(1);
+		if (kind.equiv(LIST) && arg.isa(Obj.LIST)) {
+			return new ListSource(Casting.asList(arg));
+		} else if (kind.equiv(RANGE) && arg.isa(Obj.NUMBERLIST) && Casting.asList(arg).length() == 3) {
+			final double[] r = Casting.asList(arg).toNumberList().todoubleArray();
+			return new RangeSource(r[0], r[1], r[2]);
+		} else if (kind.equiv(COUNT) && arg.isa(Obj.NUMBERLIST) && Casting.asList(arg).length() == 2) {
+			final double[] r = Casting.asList(arg).toNumberList().todoubleArray();
+			return new RangeSource(r[0], r[1], r[1] < 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+		} else if (kind.equiv(GEN) && arg.isa(Obj.DICT)) {
+			return new GeneratorSource(Casting.asDict(arg));
+		} else if (kind.equiv(PERMS) && arg.isa(Obj.LIST)) {
+			return new PermutationSource(Casting.asList(arg));
+		} else if (kind.equiv(COMBS) && arg.isa(Obj.LIST) && Casting.asList(arg).length() == 2
+				&& Casting.asList(arg).getExact(0).isa(Obj.LIST) && Casting.asList(arg).getExact(1).isa(Obj.NUMBER)) {
+			final List args = Casting.asList(arg);
+			return new CombinationSource(Casting.asList(args.getExact(0)), Casting.asNumber(args.getExact(1)).toInt());
+		} else if (kind.equiv(PRODUCT) && arg.isa(Obj.LIST)) {
+			return new ProductSource(Casting.asList(arg));
+		} else if (kind.equiv(POWERSET) && arg.isa(Obj.LIST)) {
+			return new PowersetSource(Casting.asList(arg));
+		} else {
+			throw new ValueError("iter: unknown source " + src.repr());
+		}
+	}
+	
+	private static Pipeline stage(Pipeline in, Obj stage_obj) {
+		if (!stage_obj.isa(Obj.LIST)) {
+			throw new ValueError("iter: invalid stage " + stage_obj.repr());
+		}
+		final List stage = Casting.asList(stage_obj);
+		final Symbol kind = kind(stage, "stage");
+		final Obj arg = stage.getExact(1);
+		if (kind.equiv(MAP) && arg.isa(Obj.BLOCK)) {
+			return new MapStage(in, Casting.asBlock(arg));
+		} else if (kind.equiv(FILTER) && arg.isa(Obj.BLOCK)) {
+			return new FilterStage(in, Casting.asBlock(arg), false);
+		} else if (kind.equiv(TAKEWHILE) && arg.isa(Obj.BLOCK)) {
+			return new FilterStage(in, Casting.asBlock(arg), true);
+		} else if (kind.equiv(TAKE) && arg.isa(Obj.NUMBER)) {
+			return new TakeStage(in, Casting.asNumber(arg).toLong());
+		} else if (kind.equiv(ZIP)) {
+			return new ZipStage(in, of(arg));
+		} else {
+			throw new ValueError("iter: unknown stage " + stage.repr());
+		}
+	}
+	
+	private static Symbol kind(List l, String what) {
+		if (l.length() == 2 && l.getExact(0).isa(Obj.SYMBOL)) {
+			return Casting.asSymbol(l.getExact(0));
+		} else {
+			throw new ValueError("iter: invalid " + what + " " + l.repr());
+		}
+	}
+	
+	
+	/////////////
+	// SOURCES //
+	/////////////
+	
+	private static class ListSource extends Pipeline {
+		private final List _list;
+		private int _i = 0;
+		
+		ListSource(List list) {
+			_list = list;
+		}
+		
+		@Override
+		public Obj next() {
+			return _i < _list.length() ? _list.getExact(_i++) : null;
+		}
+	}
+	
+	/** start, start+step, ... up to and including stop */
+	private static class RangeSource extends Pipeline {
+		private final double _start, _step, _stop;
+		private long _i = 0;
+		
+		RangeSource(double start, double step, double stop) {
+			if (step == 0) {
+				throw new ValueError("iter: range step must not be 0");
+			}
+			_start = start;
+			_step = step;
+			_stop = stop;
+		}
+		
+		@Override
+		public Obj next() {
+			final double x = _start + _i * _step;
+			if (_step > 0 ? x > _stop : x < _stop) {
+				return null;
+			} else {
+				_i++;
+				return new Num(x);
+			}
+		}
+	}
+	
+	/**
+	 * The items saved in the source, then the items left by calling
+	 * obj.__next__ until it leaves nothing on the stack
+	 */
+	private static class GeneratorSource extends Pipeline {
+		private final Dict _gen;
+		private final Dict _obj;
+		private final List _items;
+		private CompiledCallable _next = null;
+		private int _i = 0;
+		
+		GeneratorSource(Dict gen) {
+			final DictReader d = new DictReader(gen, "iter");
+			_gen = gen;
+			_obj = d.getDictEx(OBJ);
+			_items = d.getListEx(ITEMS);
+		}
+		
+		@Override
+		public Obj next() {
+			while (_i >= _items.length()) {
+				if (new DictReader(_gen).getBool(DONE, false)) return null;
+				final Stack<Obj> out = nextFn().invoke();
+				if (out.isEmpty()) {
+					_gen.set(DONE, Num.ONE);
+				}
+				for (Obj o : out) _items.mutAdd(o);
+			}
+			return _items.getExact(_i++);
+		}
+		
+		/** Compiled only when the saved items run out */
+		private CompiledCallable nextFn() {
+			if (_next == null) {
+				final Obj fn = _obj.get(SymbolConstants.KEYVAR_NEXT);
+				if (!fn.isa(Obj.BLOCK)) {
+					throw new TypeError("iter: __next__ must be a block, received " + fn.repr());
+				}
+				if (_obj.pushSelf()) {
+					_next = new CompiledCallable(Casting.asBlock(fn), _obj);
+				} else {
+					_next = new CompiledCallable(Casting.asBlock(fn));
+				}
+			}
+			return _next;
+		}
+	}
+	
+	
+	/**
+	 * Sequences of index arrays. Each item is built by picking items from
+	 * the source lists, so only one index array is kept in memory
+	 */
+	private static abstract class IndexSource extends Pipeline {
+		protected int[] _idx;
+		private boolean _started = false;
+		private boolean _done = false;
+		
+		/** Move to the next index array, return false if there are none left */
+		protected abstract boolean advance();
+		
+		/** Build the item for the current index array */
+		protected abstract Obj build();
+		
+		/** Set the first index array, return false if the sequence is empty */
+		protected abstract boolean reset();
+		
+		@Override
+		public Obj next() {
+			if (_done) return null;
+			if (!_started) {
+				_started = true;
+				_done = !reset();
+			} else {
+				_done = !advance();
+			}
+			return _done ? null : build();
+		}
+		
+		protected static Obj pick(List items, int[] idx) {
+			ArrayList<Obj> out = new ArrayList<Obj>(idx.length);
+			for (int i : idx) out.add(items.getExact(i));
+			return new List(out);
+		}
+	}
+	
+	/** All orderings of the items of a list in lexicographic order of their positions */
+	private static class PermutationSource extends IndexSource {
+		private final List _items;
+		
+		PermutationSource(List items) {
+			_items = items;
+		}
+		
+		@Override
+		protected boolean reset() {
+			_idx = new int[_items.length()];
+			for (int i = 0; i < _idx.length; i++) _idx[i] = i;
+			return true;
+		}
+		
+		@Override
+		protected boolean advance() {
+			// Rightmost ascent
+			int i = _idx.length - 2;
+			while (i >= 0 && _idx[i] >= _idx[i+1]) i--;
+			if (i < 0) return false;
+			// Rightmost item larger than the ascent
+			int j = _idx.length - 1;
+			while (_idx[j] <= _idx[i]) j--;
+			swap(i, j);
+			// Reverse the suffix
+			for (int a = i + 1, b = _idx.length - 1; a < b; a++, b--) swap(a, b);
+			return true;
+		}
+		
+		private void swap(int a, int b) {
+			final int tmp = _idx[a];
+			_idx[a] = _idx[b];
+			_idx[b] = tmp;
+		}
+		
+		@Override
+		protected Obj build() {
+			return pick(_items, _idx);
+		}
+	}
+	
+	/** All k item subsets of a list, in order */
+	private static class CombinationSource extends IndexSource {
+		private final List _items;
+		private final int _k;
+		
+		CombinationSource(List items, int k) {
+			if (k < 0) {
+				throw new ValueError("iter: combination size must not be negative. Received " + k);
+			}
+			_items = items;
+			_k = k;
+		}
+		
+		@Override
+		protected boolean reset() {
+			_idx = new int[_k];
+			for (int i = 0; i < _k; i++) _idx[i] = i;
+			return _k <= _items.length();
+		}
+		
+		@Override
+		protected boolean advance() {
+			final int n = _items.length();
+			int i = _k - 1;
+			while (i >= 0 && _idx[i] == n - _k + i) i--;
+			if (i < 0) return false;
+			_idx[i]++;
+			for (int j = i + 1; j < _k; j++) _idx[j] = _idx[j-1] + 1;
+			return true;
+		}
+		
+		@Override
+		protected Obj build() {
+			return pick(_items, _idx);
+		}
+	}
+	
+	/** Cartesian product of a list of lists, the last list changes fastest */
+	private static class ProductSource extends IndexSource {
+		private final List[] _lists;
+		
+		ProductSource(List lists) {
+			_lists = new List[lists.length()];
+			for (int i = 0; i < _lists.length; i++) {
+				final Obj l = lists.getExact(i);
+				if (!l.isa(Obj.LIST)) {
+					throw new ValueError("iter: product expects a list of lists. Received " + lists.repr());
+				}
+				_lists[i] = Casting.asList(l);
+			}
+		}
+		
+		@Override
+		protected boolean reset() {
+			_idx = new int[_lists.length];
+			for (List l : _lists) {
+				if (l.length() == 0) return false;
+			}
+			return true;
+		}
+		
+		@Override
+		protected boolean advance() {
+			for (int i = _idx.length - 1; i >= 0; i--) {
+				if (++_idx[i] < _lists[i].length()) return true;
+				_idx[i] = 0;
+			}
+			return false;
+		}
+		
+		@Override
+		protected Obj build() {
+			ArrayList<Obj> out = new ArrayList<Obj>(_idx.length);
+			for (int i = 0; i < _idx.length; i++) out.add(_lists[i].getExact(_idx[i]));
+			return new List(out);
+		}
+	}
+	
+	/** All subsets of a list, smallest first */
+	private static class PowersetSource extends Pipeline {
+		private final List _items;
+		private int _k = 0;
+		private CombinationSource _combs;
+		
+		PowersetSource(List items) {
+			_items = items;
+			_combs = new CombinationSource(items, 0);
+		}
+		
+		@Override
+		public Obj next() {
+			Obj o;
+			while ((o = _combs.next()) == null) {
+				if (++_k > _items.length()) return null;
+				_combs = new CombinationSource(_items, _k);
+			}
+			return o;
+		}
+	}
+	
+	
+	////////////
+	// STAGES //
+	////////////
+	
+	/** Map a block to each item, all items the block leaves on the stack are output */
+	private static class MapStage extends Pipeline {
+		private final Pipeline _in;
+		private final CompiledCallable _fn;
+		private final Buffer _buf = new Buffer();
+		
+		MapStage(Pipeline in, Block fn) {
+			_in = in;
+			_fn = new CompiledCallable(fn);
+		}
+		
+		@Override
+		public Obj next() {
+			while (_buf.isEmpty()) {
+				final Obj o = _in.next();
+				if (o == null) return null;
+				_buf.fill(_fn.invoke(o));
+			}
+			return _buf.poll();
+		}
+	}
+	
+	/** Keep items for which the block is true. If take_while, stop at the first false item */
+	private static class FilterStage extends Pipeline {
+		private final Pipeline _in;
+		private final CompiledCallable _fn;
+		private final boolean _take_while;
+		private boolean _done = false;
+		
+		FilterStage(Pipeline in, Block fn, boolean take_while) {
+			_in = in;
+			_fn = new CompiledCallable(fn);
+			_take_while = take_while;
+		}
+		
+		@Override
+		public Obj next() {
+			while (!_done) {
+				final Obj o = _in.next();
+				if (o == null) {
+					_done = true;
+				} else if (_fn.test(o)) {
+					return o;
+				} else if (_take_while) {
+					_done = true;
+				}
+			}
+			return null;
+		}
+	}
+	
+	private static class TakeStage extends Pipeline {
+		private final Pipeline _in;
+		private long _remaining;
+		
+		TakeStage(Pipeline in, long n) {
+			_in = in;
+			_remaining = n;
+		}
+		
+		@Override
+		public Obj next() {
+			if (_remaining <= 0) return null;
+			_remaining--;
+			return _in.next();
+		}
+	}
+	
+	/** Pair items from two sequences, stop when either is exhausted */
+	private static class ZipStage extends Pipeline {
+		private final Pipeline _a, _b;
+		
+		ZipStage(Pipeline a, Pipeline b) {
+			_a = a;
+			_b = b;
+		}
+		
+		@Override
+		public Obj next() {
+			final Obj a = _a.next();
+			if (a == null) return null;
+			final Obj b = _b.next();
+			if (b == null) return null;
+			ArrayList<Obj> pair = new ArrayList<Obj>(2);
+			pair.add(a);
+			pair.add(b);
+			return new List(pair);
+		}
+	}
+	
+	/** Queue of items produced by one call of a block */
+	private static class Buffer {
+		private final ArrayList<Obj> _items = new ArrayList<Obj>();
+		private int _i = 0;
+		
+		boolean isEmpty() {
+			return _i >= _items.size();
+		}
+		
+		void fill(Collection<Obj> items) {
+			_items.clear();
+			_items.addAll(items);
+			_i = 0;
+		}
+		
+		Obj poll() {
+			return isEmpty() ? null : _items.get(_i++);
+		}
+	}
+}
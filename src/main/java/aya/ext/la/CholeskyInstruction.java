@@ -0,0 +1,27 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.CholeskyDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+
+public class CholeskyInstruction extends MatrixInstruction {
+	
+	public CholeskyInstruction() {
+		super("la.cholesky", "Cholesky decomposition of a symmetric positive definite matrix: A -> L where A = LL'");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			block.push(fromMatrix(new CholeskyDecomposition(a).getL()));
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+import aya.obj.number.Num;
+
+public class DeterminantInstruction extends MatrixInstruction {
+	
+	public DeterminantInstruction() {
+		super("la.det", "determinant of a square matrix");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			block.push(new Num(new LUDecomposition(a).getDeterminant()));
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
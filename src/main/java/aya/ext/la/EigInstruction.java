@@ -0,0 +1,32 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.EigenDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+public class EigInstruction extends MatrixInstruction {
+	
+	public EigInstruction() {
+		super("la.eig", "eigendecomposition of a symmetric matrix: A -> [values V] where the columns of V are the eigenvectors");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			EigenDecomposition eig = new EigenDecomposition(a, 0.0);
+			List out = new List();
+			out.mutAdd(fromArray(eig.getRealEigenvalues()));
+			out.mutAdd(fromMatrix(eig.getV()));
+			block.push(out);
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+
+public class InverseInstruction extends MatrixInstruction {
+	
+	public InverseInstruction() {
+		super("la.inv", "inverse of a square matrix");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			block.push(fromMatrix(new LUDecomposition(a).getSolver().getInverse()));
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
@@ -0,0 +1,33 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+public class LUInstruction extends MatrixInstruction {
+	
+	public LUInstruction() {
+		super("la.lu", "LU decomposition with partial pivoting: A -> [L U P] where PA = LU");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			LUDecomposition lu = new LUDecomposition(a);
+			List out = new List();
+			out.mutAdd(fromMatrix(lu.getL()));
+			out.mutAdd(fromMatrix(lu.getU()));
+			out.mutAdd(fromMatrix(lu.getP()));
+			block.push(out);
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
@@ -7,5 +7,14 @@ public class LinearAlgebraInstructionStore extends NamedInstructionStore {
 	@Override
 	protected void init() {
 		addInstruction(new MatMulInstruction());
+		addInstruction(new NDArrayInstruction());
+		addInstruction(new SolveInstruction());
+		addInstruction(new InverseInstruction());
+		addInstruction(new DeterminantInstruction());
+		addInstruction(new LUInstruction());
+		addInstruction(new QRInstruction());
+		addInstruction(new CholeskyInstruction());
+		addInstruction(new EigInstruction());
+		addInstruction(new SVDInstruction());
 	}
 }
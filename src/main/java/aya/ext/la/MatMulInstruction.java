@@ -1,6 +1,8 @@
 package aya.ext.la;
 
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import aya.exceptions.runtime.IndexError;
 import aya.exceptions.runtime.TypeError;
@@ -9,13 +11,23 @@ import aya.instruction.named.NamedInstruction;
 import aya.obj.Obj;
 import aya.obj.block.Block;
 import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.NDArray;
 import aya.obj.list.numberlist.NumberList;
 import aya.obj.number.Num;
+import aya.obj.number.Number;
 import aya.obj.number.NumberMath;
 import aya.util.Casting;
 
 public class MatMulInstruction extends NamedInstruction {
 	
+	/** Tile sizes for the double[] kernel */
+	private static final int TILE = 64;
+	private static final int K_TILE = 256;
+	
+	/** Multiply-adds below which the double[] kernel runs on the calling thread */
+	private static final long PARALLEL_THRESHOLD = 1L << 18;
+	
 	public MatMulInstruction() {
 		super("la.mul");
 		_doc = ("2d matrix multiplication");
@@ -35,6 +47,8 @@ public class MatMulInstruction extends NamedInstruction {
 	
 	private List matMulSafe(List a, List b) {
 		try {
+			List fast = matMulDouble(a, b);
+			if (fast != null) return fast;
 			return matMul(a, b);
 		} catch (ClassCastException e0) {
 			throw new TypeError(this, "LL", b, a);
@@ -45,14 +59,163 @@ public class MatMulInstruction extends NamedInstruction {
 		}
 	}
 	
-	private static ArrayList<NumberList> newEmpty(int rows, int cols) {
-		ArrayList<NumberList> out = new ArrayList<NumberList>();
-		for (int r = 0; r < rows; r++) {
-			out.add(NumberList.repeat(Num.ZERO, cols));
+	///////////////
+	// FAST PATH //
+	///////////////
+	
+	/** Multiply matrices of Nums using primitive arrays. Return null if
+	 * either matrix contains other kinds of numbers */
+	private static List matMulDouble(List a, List b) {
+		final int m = a.length();
+		final int p = b.length();
+		if (m == 0 || p == 0) return null;
+		final double[] a_rows = toRowMajor(a, p);
+		if (a_rows == null) return null;
+		final Obj b_0 = b.getExact(0);
+		if (!b_0.isa(Obj.LIST)) return null;
+		final int q = Casting.asList(b_0).length();
+		final double[] b_rows = toRowMajor(b, q);
+		if (b_rows == null) return null;
+		
+		// Transpose B so that the inner loop reads both operands sequentially
+		final double[] bt = new double[q * p];
+		for (int k = 0; k < p; k++) {
+			for (int j = 0; j < q; j++) {
+				bt[j * p + k] = b_rows[k * q + j];
+			}
+		}
+		
+		final double[] c = new double[m * q];
+		if ((long)m * p * q < PARALLEL_THRESHOLD || m < 2 * TILE) {
+			kernel(a_rows, bt, c, p, q, 0, m);
+		} else {
+			ForkJoinPool.commonPool().invoke(new MatMulTask(a_rows, bt, c, p, q, 0, m));
+		}
+		
+		if (a.isa(Obj.NDARRAY) || b.isa(Obj.NDARRAY)) {
+			return new List(new NDArray(c, new int[] {m, q}));
+		} else {
+			List out = new List();
+			for (int i = 0; i < m; i++) {
+				double[] row = new double[q];
+				System.arraycopy(c, i * q, row, 0, q);
+				out.mutAdd(new List(new DoubleList(row)));
+			}
+			return out;
+		}
+	}
+	
+	/** Copy a matrix of Nums into a row-major array. Return null if any
+	 * row is not a list of Nums */
+	private static double[] toRowMajor(List l, int cols) {
+		final int rows = l.length();
+		if (l.isa(Obj.NDARRAY)) {
+			NDArray nd = List.asNDArray(l);
+			if (nd.ndim() != 2) return null;
+			if (rows * cols != nd.size()) throw new ValueError("Dimension error in :{la.mul}");
+			return nd.flat().todoubleArray();
+		}
+		
+		final double[] out = new double[rows * cols];
+		for (int i = 0; i < rows; i++) {
+			final Obj o = l.getExact(i);
+			if (!o.isa(Obj.DOUBLELIST)) return null;
+			final double[] row = Casting.asList(o).toNumberList().todoubleArray();
+			if (row.length != cols) throw new ValueError("Dimension error in :{la.mul}");
+			System.arraycopy(row, 0, out, i * cols, cols);
 		}
 		return out;
 	}
-
+	
+	/** 
+	 * Compute rows [i0, i1) of C = A * B where A is (m x n), bt is B transposed (q x n)
+	 * and C is (m x q). All arrays are row-major. Tiles over columns and the inner
+	 * dimension and accumulates a 2x2 block of C in registers.
+	 */
+	private static void kernel(double[] a, double[] bt, double[] c, int n, int q, int i0, int i1) {
+		for (int jj = 0; jj < q; jj += TILE) {
+			final int j1 = Math.min(jj + TILE, q);
+			for (int kk = 0; kk < n; kk += K_TILE) {
+				final int k1 = Math.min(kk + K_TILE, n);
+				int i = i0;
+				for (; i + 1 < i1; i += 2) {
+					final int a0 = i * n;
+					final int a1 = a0 + n;
+					int j = jj;
+					for (; j + 1 < j1; j += 2) {
+						final int b0 = j * n;
+						final int b1 = b0 + n;
+						double c00 = 0, c01 = 0, c10 = 0, c11 = 0;
+						for (int k = kk; k < k1; k++) {
+							final double x0 = a[a0 + k];
+							final double x1 = a[a1 + k];
+							final double y0 = bt[b0 + k];
+							final double y1 = bt[b1 + k];
+							c00 += x0 * y0;
+							c01 += x0 * y1;
+							c10 += x1 * y0;
+							c11 += x1 * y1;
+						}
+						c[i * q + j] += c00;
+						c[i * q + j + 1] += c01;
+						c[(i + 1) * q + j] += c10;
+						c[(i + 1) * q + j + 1] += c11;
+					}
+					if (j < j1) {
+						c[i * q + j] += dot(a, a0, bt, j * n, kk, k1);
+						c[(i + 1) * q + j] += dot(a, a1, bt, j * n, kk, k1);
+					}
+				}
+				if (i < i1) {
+					for (int j = jj; j < j1; j++) {
+						c[i * q + j] += dot(a, i * n, bt, j * n, kk, k1);
+					}
+				}
+			}
+		}
+	}
+	
+	private static double dot(double[] a, int a_off, double[] b, int b_off, int k0, int k1) {
+		double sum = 0;
+		for (int k = k0; k < k1; k++) {
+			sum += a[a_off + k] * b[b_off + k];
+		}
+		return sum;
+	}
+	
+	/** Split the rows of C across the fork join pool */
+	private static class MatMulTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final double[] a, bt, c;
+		private final int n, q, i0, i1;
+		
+		MatMulTask(double[] a, double[] bt, double[] c, int n, int q, int i0, int i1) {
+			this.a = a;
+			this.bt = bt;
+			this.c = c;
+			this.n = n;
+			this.q = q;
+			this.i0 = i0;
+			this.i1 = i1;
+		}
+		
+		@Override
+		protected void compute() {
+			if (i1 - i0 <= TILE) {
+				kernel(a, bt, c, n, q, i0, i1);
+			} else {
+				// Keep the split on an even row so the 2x2 blocks line up
+				final int mid = i0 + (((i1 - i0) / 2) & ~1);
+				invokeAll(new MatMulTask(a, bt, c, n, q, i0, mid), new MatMulTask(a, bt, c, n, q, mid, i1));
+			}
+		}
+	}
+	
+	
+	//////////////////
+	// GENERIC PATH //
+	//////////////////
+	
 	private static List matMul(List a, List b) {
 		// A is (m x n)
 		int m = a.length();
@@ -60,8 +223,6 @@ public class MatMulInstruction extends NamedInstruction {
 		// B in (p x q)
 		int p = b.length();
 		int q = Casting.asList(b.getExact(0)).length();
-		// C is (m x q)
-		ArrayList<NumberList> c = newEmpty(m, q);
 		
 		// Store b_k casting operations so we don't have to do it in the innermost loop
 		ArrayList<NumberList> b_k = new ArrayList<NumberList>();
@@ -69,20 +230,20 @@ public class MatMulInstruction extends NamedInstruction {
 			b_k.add(Casting.asList(b.getExact(i)).toNumberList());
 		}
 
+		// C is (m x q)
+		List out = new List();
 		for (int i = 0; i < m; i++) {
 			NumberList a_i = Casting.asList(a.getExact(i)).toNumberList();
+			ArrayList<Number> c_i = new ArrayList<Number>(q);
 			for (int j = 0; j < q; j++) {
+				Number sum = Num.ZERO;
 				for (int k = 0; k < p; k++) {
-					c.get(i).set(j, 
-						NumberMath.add(c.get(i).get(j), NumberMath.mul(a_i.get(k), b_k.get(k).get(j)))
-					);
+					sum = NumberMath.add(sum, NumberMath.mul(a_i.get(k), b_k.get(k).get(j)));
 				}
+				c_i.add(sum);
 			}
+			out.mutAdd(new List(NumberList.fromNumberAL(c_i)));
 		}
-		
-		// Convert to List
-		List out = new List();
-		for (NumberList x : c) out.mutAdd(new List(x));
 		return out;
 	}
 
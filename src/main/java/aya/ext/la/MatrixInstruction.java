@@ -0,0 +1,83 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.named.NamedInstruction;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.NDArray;
+import aya.util.Casting;
+
+/** Base class for instructions that operate on a 2d matrix of numbers */
+public abstract class MatrixInstruction extends NamedInstruction {
+
+	public MatrixInstruction(String name, String doc) {
+		super(name, doc);
+	}
+
+	/** Convert a rectangular list of numeric lists to a matrix */
+	protected RealMatrix toMatrix(Obj o) {
+		if (!o.isa(Obj.LIST) || o.isa(Obj.STR)) {
+			throw new TypeError(this, "L", o);
+		}
+
+		final List rows = Casting.asList(o);
+		final int m = rows.length();
+		if (m == 0) {
+			throw new ValueError(getName() + ": matrix must not be empty");
+		}
+
+		if (rows.isa(Obj.NDARRAY)) {
+			NDArray nd = List.asNDArray(rows);
+			if (nd.ndim() != 2) {
+				throw new ValueError(getName() + ": expected a 2d matrix, received an array of rank " + nd.ndim());
+			}
+			final double[] flat = nd.flat().todoubleArray();
+			final int n = flat.length / m;
+			double[][] data = new double[m][];
+			for (int i = 0; i < m; i++) {
+				data[i] = new double[n];
+				System.arraycopy(flat, i * n, data[i], 0, n);
+			}
+			return new Array2DRowRealMatrix(data, false);
+		}
+
+		double[][] data = new double[m][];
+		for (int i = 0; i < m; i++) {
+			final Obj row = rows.getExact(i);
+			if (!row.isa(Obj.LIST) || row.isa(Obj.STR)) {
+				throw new TypeError(this, "L", o);
+			}
+			data[i] = Casting.asList(row).toNumberList().todoubleArray();
+			if (data[i].length != data[0].length) {
+				throw new ValueError(getName() + ": matrix is not rectangular");
+			}
+		}
+		if (data[0].length == 0) {
+			throw new ValueError(getName() + ": matrix must not be empty");
+		}
+		return new Array2DRowRealMatrix(data, false);
+	}
+
+	/** Convert a matrix to a list of DoubleList rows */
+	protected static List fromMatrix(RealMatrix matrix) {
+		List out = new List();
+		for (int i = 0; i < matrix.getRowDimension(); i++) {
+			out.mutAdd(fromArray(matrix.getRow(i)));
+		}
+		return out;
+	}
+
+	protected static List fromArray(double[] values) {
+		return new List(new DoubleList(values));
+	}
+
+	/** Wrap an exception from the numeric library */
+	protected ValueError mathError(RuntimeException e) {
+		return new ValueError(getName() + ": " + e.getMessage());
+	}
+}
@@ -0,0 +1,29 @@
+package aya.ext.la;
+
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstruction;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.NDArray;
+import aya.util.Casting;
+
+public class NDArrayInstruction extends NamedInstruction {
+	
+	public NDArrayInstruction() {
+		super("la.ndarray");
+		_doc = ("convert a rectangular nested list of numbers to a dense n-dimensional array");
+	}
+
+	@Override
+	public void execute(Block block) {
+		Obj a = block.pop();
+
+		if (a.isa(Obj.LIST) && !a.isa(Obj.STR)) {
+			block.push(new List(NDArray.fromList(Casting.asList(a))));
+		} else {
+			throw new TypeError(this, "L", a);
+		}
+	}
+
+}
@@ -0,0 +1,32 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+public class QRInstruction extends MatrixInstruction {
+	
+	public QRInstruction() {
+		super("la.qr", "QR decomposition: A -> [Q R] where A = QR");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			QRDecomposition qr = new QRDecomposition(a);
+			List out = new List();
+			out.mutAdd(fromMatrix(qr.getQ()));
+			out.mutAdd(fromMatrix(qr.getR()));
+			block.push(out);
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
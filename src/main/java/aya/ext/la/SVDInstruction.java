@@ -0,0 +1,33 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+public class SVDInstruction extends MatrixInstruction {
+	
+	public SVDInstruction() {
+		super("la.svd", "singular value decomposition: A -> [U S V] where A = U diag(S) V'");
+	}
+
+	@Override
+	public void execute(Block block) {
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			SingularValueDecomposition svd = new SingularValueDecomposition(a);
+			List out = new List();
+			out.mutAdd(fromMatrix(svd.getU()));
+			out.mutAdd(fromArray(svd.getSingularValues()));
+			out.mutAdd(fromMatrix(svd.getV()));
+			block.push(out);
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
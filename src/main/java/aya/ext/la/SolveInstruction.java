@@ -0,0 +1,46 @@
+package aya.ext.la;
+
+import org.apache.commons.math3.exception.MathArithmeticException;
+import org.apache.commons.math3.exception.MathIllegalArgumentException;
+import org.apache.commons.math3.exception.MathUnsupportedOperationException;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.QRDecomposition;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.List;
+import aya.util.Casting;
+
+public class SolveInstruction extends MatrixInstruction {
+	
+	public SolveInstruction() {
+		super("la.solve", "A B: solve AX = B for X where B is a vector or a matrix. Least squares if A is not square");
+	}
+
+	@Override
+	public void execute(Block block) {
+		Obj b = block.pop();
+		RealMatrix a = toMatrix(block.pop());
+		try {
+			DecompositionSolver solver;
+			if (a.isSquare()) {
+				solver = new LUDecomposition(a).getSolver();
+			} else {
+				solver = new QRDecomposition(a).getSolver();
+			}
+			
+			if (b.isa(Obj.NUMBERLIST)) {
+				List bs = Casting.asList(b);
+				block.push(fromArray(solver.solve(new ArrayRealVector(bs.toNumberList().todoubleArray(), false)).toArray()));
+			} else {
+				block.push(fromMatrix(solver.solve(toMatrix(b))));
+			}
+		} catch (MathIllegalArgumentException | MathArithmeticException | MathUnsupportedOperationException e) {
+			throw mathError(e);
+		}
+	}
+
+}
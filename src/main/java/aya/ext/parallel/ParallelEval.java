@@ -0,0 +1,145 @@
+package aya.ext.parallel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import aya.Aya;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
+import aya.obj.list.List;
+import aya.variable.VariableData;
+
+/**
+ * Evaluate blocks over the items of a list on the common ForkJoinPool.
+ * The list is split into chunks. Each chunk is evaluated in its own fork of
+ * the caller's variables (see {@link VariableData#fork()}) so blocks can read
+ * any variable but assigning to a non-local variable, or modifying a list or
+ * dict created before the chunk started, is an error. The results of the
+ * chunks are joined in order.
+ */
+public class ParallelEval {
+	
+	/** Number of chunks per thread, more chunks balance uneven work better */
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/** Evaluate the items [from, to) of a list, adding the results to out */
+	private interface ChunkFn {
+		public void apply(List list, int from, int to, ArrayList<Obj> out);
+	}
+	
+	/** Map a block to each item of a list */
+	public static List map(List list, Block block) {
+		return run(list, (l, from, to, out) -> {
+			final CompiledCallable fn = new CompiledCallable(block);
+			for (int i = from; i < to; i++) {
+				out.addAll(fn.invoke(l.getExact(i)));
+			}
+		});
+	}
+	
+	/** Keep the items of a list for which the block is true */
+	public static List filter(List list, Block block) {
+		return run(list, (l, from, to, out) -> {
+			final CompiledCallable fn = new CompiledCallable(block);
+			for (int i = from; i < to; i++) {
+				final Obj o = l.getExact(i);
+				if (fn.test(o)) out.add(o);
+			}
+		});
+	}
+	
+	/** Same as the list builder <code>[list, map, filter]</code>. map may be null */
+	public static List build(List list, Block map, Block filter) {
+		return run(list, (l, from, to, out) -> {
+			final CompiledCallable map_fn = map == null ? null : new CompiledCallable(map);
+			final CompiledCallable filter_fn = new CompiledCallable(filter);
+			final ArrayList<Obj> mapped = new ArrayList<Obj>();
+			for (int i = from; i < to; i++) {
+				mapped.clear();
+				if (map_fn == null) {
+					mapped.add(l.getExact(i));
+				} else {
+					mapped.addAll(map_fn.invoke(l.getExact(i)));
+				}
+				for (Obj o : mapped) {
+					if (filter_fn.test(o)) out.add(o);
+				}
+			}
+		});
+	}
+	
+	private static List run(List list, ChunkFn chunk_fn) {
+		final int len = list.length();
+		if (len == 0) return new List();
+		
+		final int nchunks = Math.min(len, ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+		final ChunkTask task = new ChunkTask(list, chunk_fn, Aya.getInstance().getVars(), nchunks);
+		ForkJoinPool.commonPool().invoke(task);
+		
+		// Report the error from the first failing chunk
+		for (RuntimeException e : task.errors) {
+			if (e != null) throw e;
+		}
+		
+		int size = 0;
+		for (ArrayList<Obj> r : task.results) size += r.size();
+		ArrayList<Obj> out = new ArrayList<Obj>(size);
+		for (ArrayList<Obj> r : task.results) out.addAll(r);
+		return new List(out);
+	}
+	
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List list;
+		private final ChunkFn chunk_fn;
+		private final VariableData vars;
+		private final int nchunks, c0, c1;
+		// One slot per chunk, each chunk only sets its own
+		private final ArrayList<ArrayList<Obj>> results;
+		private final RuntimeException[] errors;
+		
+		ChunkTask(List list, ChunkFn chunk_fn, VariableData vars, int nchunks) {
+			this(list, chunk_fn, vars, nchunks, 0, nchunks,
+					new ArrayList<ArrayList<Obj>>(Collections.nCopies(nchunks, (ArrayList<Obj>)null)),
+					new RuntimeException[nchunks]);
+		}
+		
+		private ChunkTask(List list, ChunkFn chunk_fn, VariableData vars, int nchunks, int c0, int c1,
+				ArrayList<ArrayList<Obj>> results, RuntimeException[] errors) {
+			this.list = list;
+			this.chunk_fn = chunk_fn;
+			this.vars = vars;
+			this.nchunks = nchunks;
+			this.c0 = c0;
+			this.c1 = c1;
+			this.results = results;
+			this.errors = errors;
+		}
+		
+		@Override
+		protected void compute() {
+			if (c1 - c0 == 1) {
+				final int len = list.length();
+				final int from = (int)((long)c0 * len / nchunks);
+				final int to = (int)((long)c1 * len / nchunks);
+				final ArrayList<Obj> out = new ArrayList<Obj>(to - from);
+				try {
+					Aya.runWorker(vars.fork(), () -> {
+						chunk_fn.apply(list, from, to, out);
+						return null;
+					});
+				} catch (RuntimeException e) {
+					errors[c0] = e;
+				}
+				results.set(c0, out);
+			} else {
+				final int mid = (c0 + c1) >>> 1;
+				invokeAll(new ChunkTask(list, chunk_fn, vars, nchunks, c0, mid, results, errors),
+						new ChunkTask(list, chunk_fn, vars, nchunks, mid, c1, results, errors));
+			}
+		}
+	}
+}
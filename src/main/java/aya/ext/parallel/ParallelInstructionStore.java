@@ -0,0 +1,59 @@
+package aya.ext.parallel;
+
+import aya.exceptions.runtime.TypeError;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionStore;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.util.Casting;
+
+public class ParallelInstructionStore extends NamedInstructionStore {
+
+	/** Added to each help text, see VariableData.fork */
+	private static final String SIDE_EFFECTS = ". Blocks cannot assign to outer variables or modify lists and dicts created outside of them";
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedInstruction("parallel.map", "L B: map B to each item of L using all cores" + SIDE_EFFECTS) {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj l = block.pop();
+				if (l.isa(Obj.LIST) && b.isa(Obj.BLOCK)) {
+					block.push(ParallelEval.map(Casting.asList(l), Casting.asBlock(b)));
+				} else {
+					throw new TypeError(this, "LB", b, l);
+				}
+			}
+		});
+
+		addInstruction(new NamedInstruction("parallel.filter", "L B: keep the items of L for which B is true using all cores" + SIDE_EFFECTS) {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj l = block.pop();
+				if (l.isa(Obj.LIST) && b.isa(Obj.BLOCK)) {
+					block.push(ParallelEval.filter(Casting.asList(l), Casting.asBlock(b)));
+				} else {
+					throw new TypeError(this, "LB", b, l);
+				}
+			}
+		});
+
+		addInstruction(new NamedInstruction("parallel.build", "L B B: same as the list builder [L, B, B] (map then filter) using all cores" + SIDE_EFFECTS) {
+			@Override
+			public void execute(Block block) {
+				final Obj filter = block.pop();
+				final Obj map = block.pop();
+				final Obj l = block.pop();
+				if (l.isa(Obj.LIST) && map.isa(Obj.BLOCK) && filter.isa(Obj.BLOCK)) {
+					block.push(ParallelEval.build(Casting.asList(l), Casting.asBlock(map), Casting.asBlock(filter)));
+				} else {
+					throw new TypeError(this, "LBB", filter, map, l);
+				}
+			}
+		});
+
+	}
+}
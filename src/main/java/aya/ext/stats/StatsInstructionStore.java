@@ -0,0 +1,143 @@
+package aya.ext.stats;
+
+import aya.exceptions.runtime.TypeError;
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.named.NamedInstruction;
+import aya.instruction.named.NamedInstructionStore;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+import aya.util.Casting;
+
+public class StatsInstructionStore extends NamedInstructionStore {
+
+	/** Copy a list of numbers to a double[] */
+	private static double[] toDoubles(NamedInstruction inst, Obj o) {
+		if (o.isa(Obj.NUMBERLIST)) {
+			return Casting.asList(o).toNumberList().todoubleArray();
+		} else {
+			throw new TypeError(inst, "L", o);
+		}
+	}
+
+	/** Copy two lists of numbers of the same length to double[]s */
+	private static double[][] toDoublePair(NamedInstruction inst, Obj a, Obj b) {
+		final double[] xs = toDoubles(inst, a);
+		final double[] ys = toDoubles(inst, b);
+		if (xs.length != ys.length) {
+			throw new ValueError(inst.opName() + ": lists must be the same length. Received lengths "
+					+ xs.length + " and " + ys.length);
+		}
+		return new double[][] {xs, ys};
+	}
+
+	private static double[] nonEmpty(NamedInstruction inst, double[] xs) {
+		if (xs.length == 0) {
+			throw new ValueError(inst.opName() + ": list must not be empty");
+		}
+		return xs;
+	}
+
+	@Override
+	protected void init() {
+
+		addInstruction(new NamedInstruction("stats.mean", "L: arithmetic mean") {
+			@Override
+			public void execute(Block block) {
+				final double[] xs = toDoubles(this, block.pop());
+				block.push(new Num(StatsKernels.meanVariance(xs)[0]));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.variance", "L: population variance") {
+			@Override
+			public void execute(Block block) {
+				final double[] xs = toDoubles(this, block.pop());
+				block.push(new Num(StatsKernels.meanVariance(xs)[1]));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.stdev", "L: population standard deviation") {
+			@Override
+			public void execute(Block block) {
+				final double[] xs = toDoubles(this, block.pop());
+				block.push(new Num(Math.sqrt(StatsKernels.meanVariance(xs)[1])));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.median", "L: median value") {
+			@Override
+			public void execute(Block block) {
+				final double[] xs = nonEmpty(this, toDoubles(this, block.pop()));
+				block.push(new Num(StatsKernels.median(xs)));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.percentile", "L N: Nth percentile (0-100), linear interpolation between closest ranks") {
+			@Override
+			public void execute(Block block) {
+				final Obj p = block.pop();
+				final Obj l = block.pop();
+				if (!p.isa(Obj.NUMBER)) {
+					throw new TypeError(this, "LN", p, l);
+				}
+				final double pct = Casting.asNumber(p).toDouble();
+				if (!(pct >= 0 && pct <= 100)) {
+					throw new ValueError(opName() + ": percentile must be between 0 and 100. Received " + p.repr());
+				}
+				final double[] xs = nonEmpty(this, toDoubles(this, l));
+				block.push(new Num(StatsKernels.percentile(xs, pct / 100)));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.hist", "L N: count the items of L in N equal width bins between its min and max") {
+			@Override
+			public void execute(Block block) {
+				final Obj n = block.pop();
+				final Obj l = block.pop();
+				if (!n.isa(Obj.NUMBER)) {
+					throw new TypeError(this, "LN", n, l);
+				}
+				final int nbins = Casting.asNumber(n).toInt();
+				if (nbins <= 0) {
+					throw new ValueError(opName() + ": number of bins must be positive. Received " + n.repr());
+				}
+				block.push(new List(new DoubleList(StatsKernels.histogram(toDoubles(this, l), nbins))));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.cov", "L L: population covariance") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj a = block.pop();
+				final double[][] xy = toDoublePair(this, a, b);
+				block.push(new Num(StatsKernels.coMoments(xy[0], xy[1])[2]));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.corr", "L L: pearson correlation coefficient") {
+			@Override
+			public void execute(Block block) {
+				final Obj b = block.pop();
+				final Obj a = block.pop();
+				final double[][] xy = toDoublePair(this, a, b);
+				final double[] m = StatsKernels.coMoments(xy[0], xy[1]);
+				block.push(new Num(m[2] / Math.sqrt(m[3] * m[4])));
+			}
+		});
+
+		addInstruction(new NamedInstruction("stats.linfit", "L L: least squares fit of y = a + bx, return [a b]") {
+			@Override
+			public void execute(Block block) {
+				final Obj y = block.pop();
+				final Obj x = block.pop();
+				final double[][] xy = toDoublePair(this, x, y);
+				block.push(new List(new DoubleList(StatsKernels.linearFit(xy[0], xy[1]))));
+			}
+		});
+
+	}
+}
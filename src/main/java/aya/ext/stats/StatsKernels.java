@@ -0,0 +1,164 @@
+package aya.ext.stats;
+
+/** Numeric kernels for the stats extension. All functions operate on double[] */
+public class StatsKernels {
+
+	/** Single pass mean and population variance (Welford). Returns {mean, variance} */
+	public static double[] meanVariance(double[] xs) {
+		double mean = 0.0;
+		double m2 = 0.0;
+		for (int i = 0; i < xs.length; i++) {
+			final double delta = xs[i] - mean;
+			mean += delta / (i + 1);
+			m2 += delta * (xs[i] - mean);
+		}
+		if (xs.length == 0) {
+			return new double[] {Double.NaN, Double.NaN};
+		} else {
+			return new double[] {mean, m2 / xs.length};
+		}
+	}
+
+	/** Single pass means and population covariance. Returns {mean_x, mean_y, cov, var_x, var_y} */
+	public static double[] coMoments(double[] xs, double[] ys) {
+		double mx = 0.0, my = 0.0;
+		double cxy = 0.0, cxx = 0.0, cyy = 0.0;
+		for (int i = 0; i < xs.length; i++) {
+			final int n = i + 1;
+			final double dx = xs[i] - mx;
+			final double dy = ys[i] - my;
+			mx += dx / n;
+			my += dy / n;
+			cxy += dx * (ys[i] - my);
+			cxx += dx * (xs[i] - mx);
+			cyy += dy * (ys[i] - my);
+		}
+		final int n = xs.length;
+		return new double[] {mx, my, cxy / n, cxx / n, cyy / n};
+	}
+
+	/**
+	 * Return the value at fractional rank p in [0, 1] using linear
+	 * interpolation between the closest ranks. The input array is reordered.
+	 */
+	public static double percentile(double[] xs, double p) {
+		final double rank = p * (xs.length - 1);
+		final int lo = (int)Math.floor(rank);
+		final double frac = rank - lo;
+		final double lo_val = select(xs, lo);
+		if (frac == 0.0) {
+			return lo_val;
+		} else {
+			// After select, everything right of lo is >= xs[lo]
+			double hi_val = xs[lo + 1];
+			for (int i = lo + 2; i < xs.length; i++) {
+				if (xs[i] < hi_val) hi_val = xs[i];
+			}
+			return lo_val + frac * (hi_val - lo_val);
+		}
+	}
+
+	/** Median. The input array is reordered */
+	public static double median(double[] xs) {
+		final int n = xs.length;
+		final int k = n / 2;
+		final double upper = select(xs, k);
+		if (n % 2 == 1) {
+			return upper;
+		} else {
+			// After select, everything left of k is <= xs[k]
+			double lower = xs[0];
+			for (int i = 1; i < k; i++) {
+				if (xs[i] > lower) lower = xs[i];
+			}
+			return (lower + upper) / 2;
+		}
+	}
+
+	/**
+	 * Partially sort xs so that xs[k] holds the k-th smallest element,
+	 * everything before it is <= xs[k], and everything after it is >= xs[k].
+	 * Return xs[k].
+	 */
+	public static double select(double[] xs, int k) {
+		int lo = 0;
+		int hi = xs.length - 1;
+		while (hi > lo) {
+			// Median of three pivot
+			final int mid = (lo + hi) >>> 1;
+			if (xs[mid] < xs[lo]) swap(xs, mid, lo);
+			if (xs[hi] < xs[lo]) swap(xs, hi, lo);
+			if (xs[hi] < xs[mid]) swap(xs, hi, mid);
+			final double pivot = xs[mid];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (xs[i] < pivot) i++;
+				while (xs[j] > pivot) j--;
+				if (i <= j) {
+					swap(xs, i, j);
+					i++;
+					j--;
+				}
+			}
+
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				break;
+			}
+		}
+		return xs[k];
+	}
+
+	private static void swap(double[] xs, int i, int j) {
+		final double t = xs[i];
+		xs[i] = xs[j];
+		xs[j] = t;
+	}
+
+	/**
+	 * Count the items in nbins equal width bins between the min and max of the
+	 * list. Bin i holds the items in (min + i*w, min + (i+1)*w], the first bin
+	 * also holds the min.
+	 */
+	public static double[] histogram(double[] xs, int nbins) {
+		double[] counts = new double[nbins];
+		if (xs.length == 0) return counts;
+
+		double min = xs[0];
+		double max = xs[0];
+		for (double x : xs) {
+			if (x < min) min = x;
+			if (x > max) max = x;
+		}
+
+		final double width = (max - min) / nbins;
+		if (width == 0.0) {
+			counts[0] = xs.length;
+			return counts;
+		}
+
+		for (double x : xs) {
+			int bin = (int)Math.ceil((x - min) / width) - 1;
+			if (bin < 0) {
+				bin = 0;
+			} else if (bin >= nbins) {
+				bin = nbins - 1;
+			}
+			counts[bin] += 1;
+		}
+		return counts;
+	}
+
+	/** Ordinary least squares fit of y = a + bx. Returns {a, b} */
+	public static double[] linearFit(double[] xs, double[] ys) {
+		final double[] m = coMoments(xs, ys);
+		final double b = m[2] / m[3];
+		final double a = m[1] - b * m[0];
+		return new double[] {a, b};
+	}
+}
@@ -5,13 +5,18 @@ import java.util.ArrayList;
 
 import aya.AyaPrefs;
 import aya.exceptions.runtime.ValueError;
+import aya.instruction.InstructionStack;
 import aya.instruction.named.NamedInstruction;
 import aya.instruction.named.NamedInstructionStore;
 import aya.obj.Obj;
 import aya.obj.block.Block;
+import aya.obj.dict.Dict;
 import aya.obj.list.List;
 import aya.obj.number.Num;
+import aya.parser.CompileCache;
 import aya.util.FileUtils;
+import aya.util.LRUCache;
+import aya.util.Sym;
 
 public class SystemInstructionStore extends NamedInstructionStore {
 	
@@ -169,5 +174,27 @@ public class SystemInstructionStore extends NamedInstructionStore {
 				AyaPrefs.setPrompt(arg.str());
 			}
 		});
+		
+		// Runtime compile cache (~ and .~ on strings)
+		addInstruction(new NamedInstruction("sys.compile_cache", "stats of the cache of strings compiled by ~ and .~") {
+			@Override
+			public void execute(Block block) {
+				final LRUCache<String, InstructionStack> cache = CompileCache.getCache();
+				Dict out = new Dict();
+				out.set(Sym.sym("hits"),             new Num(cache.hits()));
+				out.set(Sym.sym("misses"),           new Num(cache.misses()));
+				out.set(Sym.sym("entries"),          Num.fromInt(cache.size()));
+				out.set(Sym.sym("instructions"),     new Num(cache.weight()));
+				out.set(Sym.sym("max_instructions"), new Num(cache.maxWeight()));
+				block.push(out);
+			}
+		});
+		
+		addInstruction(new NamedInstruction("sys.compile_cache_clear", "clear the cache of strings compiled by ~ and .~") {
+			@Override
+			public void execute(Block block) {
+				CompileCache.getCache().clear();
+			}
+		});
 	}
 }
@@ -89,4 +89,13 @@ public class BlockLiteralInstruction extends Instruction {
 	public Block getRawBlock() {
 		return _block;
 	}
+
+	/** Default argument expressions, null if the block has none */
+	public HashMap<Symbol, Block> getDefaults() {
+		return _defaults;
+	}
+
+	public boolean isAutoEval() {
+		return _auto_eval;
+	}
 }
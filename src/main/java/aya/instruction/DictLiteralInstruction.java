@@ -32,6 +32,10 @@ public class DictLiteralInstruction extends Instruction {
 	public int numCaptures() {
 		return num_captures;
 	}
+
+	public Block getRawBlock() {
+		return _block;
+	}
 	
 	/** Run the dict, collect variables, return the Dict object */
 	public Dict getDict(Queue<Obj> q) {
@@ -1,6 +1,7 @@
 package aya.instruction; 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 
@@ -18,14 +19,41 @@ import aya.obj.symbol.Symbol;
  */
 public class InstructionStack {
 	ArrayList<Instruction> instructions = new ArrayList<Instruction>();
+	// Bottom of the stack, shared and never modified (see setShared). Only
+	// push and pop use it directly, everything else copies it into
+	// instructions first
+	private Instruction[] shared = null;
+	private int sharedSize = 0;
+	
+	/**
+	 * Replace the contents of the stack with the instructions (bottom
+	 * first) without copying them. The array must not be modified
+	 */
+	public void setShared(Instruction[] is) {
+		instructions.clear();
+		shared = is;
+		sharedSize = is.length;
+	}
+	
+	private void unshare() {
+		if (sharedSize > 0) {
+			instructions.addAll(0, Arrays.asList(shared).subList(0, sharedSize));
+			sharedSize = 0;
+		}
+		shared = null;
+	}
 	
 	/** Pops the instructions from the top of the instruction stack */
 	public Instruction pop() {
+		if (instructions.isEmpty() && sharedSize > 0) {
+			return shared[--sharedSize];
+		}
 		return instructions.remove(instructions.size()-1);
 	}
 
 	/** Pops the instructions from the top of the instruction stack */
 	public Instruction pop(int i) {
+		unshare();
 		return instructions.remove(instructions.size()-1-i);
 	}
 	
@@ -41,6 +69,7 @@ public class InstructionStack {
 	
 	/** Inserts an instruction at a specified location on the stack */
 	public void insert(int i, Instruction o) {
+		unshare();
 		instructions.add(i,o);
 	}
 	
@@ -52,15 +81,19 @@ public class InstructionStack {
 	/** Clears the instruction stack */
 	public void clear() {
 		instructions.clear();
+		shared = null;
+		sharedSize = 0;
 	}
 	
 	/** returns at the ith element from the top of the instruction stack */
 	public Instruction peek(int i) {
+		unshare();
 		return instructions.get(instructions.size()-1-i);
 	}
 
 	/** Returns the ArrayList holding all the instructions */
 	public ArrayList<Instruction> getInstrucionList() {
+		unshare();
 		return instructions;
 	}
 	
@@ -71,17 +104,18 @@ public class InstructionStack {
 	
 	/** Adds a list of instructions */
 	public void addAll(int index, Collection<? extends Instruction> c) {
+		unshare();
 		instructions.addAll(index, c);
 	}
 	
 	/** Returns true if there are no more instructions */
 	public boolean isEmpty() {
-		return instructions.isEmpty();
+		return instructions.isEmpty() && sharedSize == 0;
 	}
 	
 	/** Returns the number of instructions in the instruction stack */
 	public int size() {
-		return instructions.size();
+		return instructions.size() + sharedSize;
 	}
 	
 	/** Will move the top of the instruction list back into the instruction list i times */
@@ -100,6 +134,7 @@ public class InstructionStack {
 	}
 	
 	public Instruction popNextNonFlagInstruction() throws ValueError {
+		unshare();
 		for (int i = 0; i < instructions.size(); i++) {
 			if (!(peek(i) instanceof FlagInstruction)) {
 				return pop(i);
@@ -122,6 +157,7 @@ public class InstructionStack {
 
 	/** Creates a deep copy of the InstructionStack */
 	public InstructionStack duplicate() {
+		unshare();
 		InstructionStack is = new InstructionStack();
 		is.addAll(this.instructions);
 		return is;
@@ -129,6 +165,7 @@ public class InstructionStack {
 	
 	/** Set the header of the instructions */
 	public void replaceHeader(BlockHeader bh) {
+		unshare();
 		int i = instructions.size() - 1;
 		if (instructions.get(i) instanceof BlockHeader) {
 			instructions.set(i, bh);
@@ -142,6 +179,7 @@ public class InstructionStack {
 	 * with `item`
 	 */
 	public void assignVarValue(Symbol var, Obj item) {
+		unshare();
 		for (int i = 0; i < instructions.size(); i++) {
 			final Instruction o = instructions.get(i);
 			if (o instanceof GetVariableInstruction && ((GetVariableInstruction)o).getSymbol().id() == var.id()) {
@@ -165,6 +203,7 @@ public class InstructionStack {
 	}
 	
 	public ReprStream repr(ReprStream stream, HashMap<Symbol, Block> captures) {
+		unshare();
 		if (captures != null) {
 			reprWithCaptures(stream, captures);
 		} else {
@@ -1,55 +1,96 @@
 package aya.instruction;
 
+import java.util.ArrayList;
+
 import aya.Aya;
 import aya.ReprStream;
 import aya.instruction.variable.GetVariableInstruction;
 import aya.obj.Obj;
 import aya.obj.block.Block;
 import aya.obj.list.List;
+import aya.obj.symbol.Symbol;
 
 public class InterpolateStringInstruction extends Instruction  {
 	String orig; // For printing
 	InstructionStack instructions;
 	
+	/** Appends one part of the string */
+	private interface Segment {
+		void append(StringBuilder sb);
+	}
+	
+	// Built once from the instructions, in order
+	private final Segment[] segments;
+	// Total length of the literal text, used to size the output
+	private final int textLength;
+	
 	public InterpolateStringInstruction(String orig, InstructionStack is) {
 		this.orig = orig;
 		instructions = is;
+		
+		ArrayList<Segment> segs = new ArrayList<Segment>();
+		int len = 0;
+		ArrayList<Instruction> list = is.getInstrucionList();
+		for (int i = list.size() - 1; i >= 0; i--) {
+			Instruction current = list.get(i);
+			Segment seg = compileSegment(current);
+			if (seg == null) continue; // Empty text
+			segs.add(seg);
+			if (current instanceof DataInstruction && ((DataInstruction)current).objIsa(Obj.STR)) {
+				len += ((DataInstruction)current).getData().str().length();
+			}
+		}
+		segments = segs.toArray(new Segment[segs.size()]);
+		textLength = len;
+	}
+	
+	/** Returns null if the instruction does not add anything to the string */
+	private Segment compileSegment(Instruction current) {
+		if (current instanceof GetVariableInstruction) {
+			final Symbol var = ((GetVariableInstruction)current).getSymbol();
+			return sb -> sb.append(Aya.getInstance().getVars().getVar(var).str());
+		} else if (current instanceof DataInstruction) {
+			Obj data = ((DataInstruction)current).getData();
+			if (data.isa(Obj.BLOCK)) {
+				final Block block = (Block)data;
+				return sb -> appendBlock(sb, block);
+			} else if (data.isa(Obj.STR)) {
+				final String text = data.str();
+				if (text.isEmpty()) return null;
+				return sb -> sb.append(text);
+			}
+		}
+		return sb -> badItemInString(current);
 	}
 	
+	private static void appendBlock(StringBuilder sb, Block block) {
+		Block b = block.duplicate();
+		b.eval();
+		if (b.getStack().size() == 1) {
+			sb.append(b.getStack().pop().str());
+		} else {
+			sb.append("[ ").append(b.getPrintOutputState()).append("]");
+		}
+	}
+	
+	public String getOriginal() {
+		return orig;
+	}
+
+	public InstructionStack getInstructions() {
+		return instructions;
+	}
+
 	public InterpolateStringInstruction duplicate() {
-		return new InterpolateStringInstruction(orig, instructions);
+		// State is never modified, okay to return self
+		return this;
 	}
 	
 	public String evalString() {
-		InstructionStack is = this.instructions.duplicate();
-		StringBuilder sb = new StringBuilder();
-		
-		while(!is.isEmpty()) {
-			Instruction current = is.pop();
-			
-			if (current instanceof GetVariableInstruction) {
-				GetVariableInstruction var = (GetVariableInstruction)current;
-				sb.append(Aya.getInstance().getVars().getVar(var.getSymbol()).str());
-			} else if (current instanceof DataInstruction) {
-				Obj data = ((DataInstruction)current).getData();
-				if (data.isa(Obj.BLOCK)) {
-					Block b = ((Block)data).duplicate();
-					b.eval();
-					if (b.getStack().size() == 1) {
-						sb.append(b.getStack().pop().str());
-					} else {
-						sb.append("[ " + b.getPrintOutputState() + "]");
-					}
-				} else if (data.isa(Obj.STR)) {
-					sb.append(data.str());
-				} else {
-					badItemInString(current);
-				}
-			} else {
-				badItemInString(current);
-			}
+		StringBuilder sb = new StringBuilder(textLength + 16 * segments.length);
+		for (Segment s : segments) {
+			s.append(sb);
 		}
-		
 		return sb.toString();
 	}
 	
@@ -7,8 +7,13 @@ import aya.ReprStream;
 import aya.exceptions.runtime.ValueError;
 import aya.obj.Obj;
 import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
 import aya.obj.list.List;
+import aya.obj.list.ListAccumulator;
 import aya.obj.list.ListRangeUtils;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+import aya.util.ElementwiseBlock;
 
 public class ListBuilderInstruction extends Instruction {
 
@@ -17,6 +22,9 @@ public class ListBuilderInstruction extends Instruction {
 	private Block map;
 	private Block[] filters;
 	private int num_captures;
+	
+	/** Number of items of a numeric range evaluated at a time by element-wise blocks */
+	private static final int CHUNK_SIZE = 1024;
 
 	public ListBuilderInstruction(Block initial, Block map, Block[] filters, int num_captures) {
 		this.initialList = initial;
@@ -25,6 +33,24 @@ public class ListBuilderInstruction extends Instruction {
 		this.num_captures = num_captures;
 	}
 	
+	public Block getInitialList() {
+		return initialList;
+	}
+
+	/** The map block, null if there is none */
+	public Block getMap() {
+		return map;
+	}
+
+	/** The filter blocks, null if there are none */
+	public Block[] getFilters() {
+		return filters;
+	}
+
+	public int numCaptures() {
+		return num_captures;
+	}
+
 	public List createList(Stack<Obj> outerStack) {
 		Block initial = initialList.duplicate();
 
@@ -48,9 +74,6 @@ public class ListBuilderInstruction extends Instruction {
 			}
 		}
 		
-		ArrayList<Obj> list = null;
-		List outList = null;
-		
 		//If all arguments are lists, dump each list's respective element onto the stack of the map block
 		// [[1 2][3 4], +] => 1 3 +, 2 4 + => [4 6]
 		if (allLists) {
@@ -67,38 +90,128 @@ public class ListBuilderInstruction extends Instruction {
 				}
 			}
 			
-			list = new ArrayList<Obj>(size);
-			
-			//Dump items from the lists into the blocks and apply the map if needed
+			//Dump items from the lists into the blocks and apply the map and filters
+			Pipeline pipeline = new Pipeline();
 			for(int i = 0; i < size; i++) {
-				Block b = new Block();
+				Obj[] args = new Obj[listArgs.size()];
 				for (int j = 0; j < listArgs.size(); j++) {
-					b.push(listArgs.get(j).getExact(i));
+					args[j] = listArgs.get(j).getExact(i);
 				}
-				
-				//Apply the map
+				pipeline.push(args);
+			}
+			return pipeline.out.toList();
+		}
+		
+		final List args = new List(res);
+		final double[] range = ListRangeUtils.doubleRangeBounds(args);
+		
+		if (range != null) {
+			// Numeric range, generate the items as they are needed
+			final double lo = range[0];
+			final double inc = range[2];
+			final long count = DoubleList.rangeLength(lo, range[1], inc);
+			if (isElementwise()) {
+				return rangeChunked(lo, inc, count);
+			} else {
+				Pipeline pipeline = new Pipeline();
+				double x = lo;
+				for (long i = 0; i < count; i++, x += inc) {
+					pipeline.push(new Num(x));
+				}
+				return pipeline.out.toList();
+			}
+		} else {
+			List outList = new List(ListRangeUtils.buildRange(args));	//Create the initial range
+			if (outList.isa(Obj.NUMBERLIST) && isElementwise()) {
+				// The map and filters are applied to the whole list at once
 				if(map != null) {
-					b.addAll(map.getInstructions().getInstrucionList());
-					b.eval();		
+					outList = outList.map(this.map);
+				}
+				if(filters != null) {
+					for (Block filter : filters) {
+						outList = outList.filter(filter);
+					}
+				}
+				return outList;
+			} else {
+				Pipeline pipeline = new Pipeline();
+				for (int i = 0; i < outList.length(); i++) {
+					pipeline.push(outList.getExact(i));
 				}
-				list.addAll(b.getStack());
+				return pipeline.out.toList();
+			}
+		}
+	}
+	
+	/** True if the map and all filters only contain number literals and element-wise operators */
+	private boolean isElementwise() {
+		if (map != null && ElementwiseBlock.compile(map, 1) == null) return false;
+		if (filters != null) {
+			for (Block filter : filters) {
+				if (ElementwiseBlock.compile(filter, 1) == null) return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Apply an element-wise map and filters to a numeric range CHUNK_SIZE
+	 * items at a time so the range and intermediate lists are never
+	 * created in full
+	 */
+	private List rangeChunked(double lo, double inc, long count) {
+		ListAccumulator out = new ListAccumulator();
+		double x = lo;
+		for (long start = 0; start < count; start += CHUNK_SIZE) {
+			double[] chunk = new double[(int)Math.min(CHUNK_SIZE, count - start)];
+			for (int i = 0; i < chunk.length; i++, x += inc) {
+				chunk[i] = x;
 			}
 			
-			outList = new List(list);
-			
-		} else {
-			outList = new List(ListRangeUtils.buildRange(new List(res)));							//Create the initial range
-			if(map != null) {
-				outList = outList.map(this.map);
+			List items = new List(new DoubleList(chunk));
+			if (map != null) {
+				items = items.map(map);
+			}
+			if (filters != null) {
+				for (Block filter : filters) {
+					items = items.filter(filter);
+				}
+			}
+			for (int i = 0; i < items.length(); i++) {
+				out.add(items.getExact(i));
 			}
 		}
+		return out.toList();
+	}
+	
+	/** Pass items through the map and filters one at a time */
+	private class Pipeline {
+		final CompiledCallable map_fn;
+		final CompiledCallable[] filter_fns;
+		final ListAccumulator out = new ListAccumulator();
 		
-		if(filters != null) {								//Apply the filters to the list
-			for (Block filter : filters) {
-				outList = outList.filter(filter);
+		Pipeline() {
+			map_fn = map == null ? null : new CompiledCallable(map);
+			filter_fns = new CompiledCallable[filters == null ? 0 : filters.length];
+			for (int i = 0; i < filter_fns.length; i++) {
+				filter_fns[i] = new CompiledCallable(filters[i]);
+			}
+		}
+		
+		void push(Obj... args) {
+			if (map_fn == null) {
+				for (Obj o : args) filter(o);
+			} else {
+				for (Obj o : map_fn.invoke(args)) filter(o);
+			}
+		}
+		
+		private void filter(Obj o) {
+			for (CompiledCallable f : filter_fns) {
+				if (!f.test(o)) return;
 			}
+			out.add(o);
 		}
-		return outList;
 	}
 	
 
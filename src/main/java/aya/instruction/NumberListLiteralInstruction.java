@@ -0,0 +1,62 @@
+package aya.instruction;
+
+import java.util.Stack;
+
+import aya.ReprStream;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+
+/**
+ * Specialization of a list literal containing only plain number literals.
+ * Generated directly by the tokenizer so large numeric lists do not need a
+ * token and an instruction per item
+ */
+public class NumberListLiteralInstruction extends ListLiteralInstruction {
+
+	private final double[] _values;
+
+	public NumberListLiteralInstruction(double[] values) {
+		super(new InstructionStack(), 0);
+		_values = values;
+	}
+
+	/** Do not modify the result */
+	public double[] getValues() {
+		return _values;
+	}
+
+	@Override
+	public int getPops() {
+		return 0;
+	}
+
+	@Override
+	public List getListCopy(Stack<Obj> outerStack) {
+		return new List(new DoubleList(_values.clone()));
+	}
+
+	@Override
+	public List toList() {
+		return getListCopy(null);
+	}
+
+	@Override
+	public NumberListLiteralInstruction duplicate() {
+		// State is never modified, okay to return self
+		return this;
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		stream.print("[");
+		for (double d : _values) {
+			new Num(d).repr(stream);
+			stream.print(" ");
+		}
+		stream.delTrailingSpaces();
+		stream.print("]");
+		return stream;
+	}
+}
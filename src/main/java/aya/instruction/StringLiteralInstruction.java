@@ -12,6 +12,10 @@ public class StringLiteralInstruction extends Instruction {
 		_str = str;
 	}
 
+	public String getString() {
+		return _str;
+	}
+
 	@Override
 	public void execute(Block block) {
 		block.push(List.fromString(_str));
@@ -19,6 +19,10 @@ public class TupleInstruction extends Instruction {
 		elements = blocks;
 	}
 	
+	public Block[] getElements() {
+		return elements;
+	}
+
 	/**
 	 * evals each of the blocks and returns an array containing each
 	 * of the results
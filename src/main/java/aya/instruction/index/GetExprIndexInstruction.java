@@ -13,6 +13,10 @@ public class GetExprIndexInstruction extends GetIndexInstruction {
 		_index = index;
 	}
 
+	public Block getIndexBlock() {
+		return _index;
+	}
+
 	@Override
 	public ReprStream repr(ReprStream stream) {
 		stream.print(".[");
@@ -15,6 +15,10 @@ public class GetNumberIndexInstruction extends GetIndexInstruction {
 	public GetNumberIndexInstruction(int index) {
 		_index = index;
 	}
+
+	public int getIntIndex() {
+		return _index;
+	}
 	
 	@Override
 	protected Obj getIndex() {
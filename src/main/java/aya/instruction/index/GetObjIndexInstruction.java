@@ -9,6 +9,10 @@ public class GetObjIndexInstruction extends GetIndexInstruction {
 	public GetObjIndexInstruction(Obj index) {
 		_index = index;
 	}
+
+	public Obj getObjIndex() {
+		return _index;
+	}
 	
 	@Override
 	protected Obj getIndex() {
@@ -12,6 +12,10 @@ public class GetVarIndexInstruction extends GetIndexInstruction {
 	public GetVarIndexInstruction(Symbol var) {
 		_var = var;
 	}
+
+	public Symbol getSymbol() {
+		return _var;
+	}
 	
 	@Override
 	protected Obj getIndex() {
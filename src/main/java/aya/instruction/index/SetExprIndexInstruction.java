@@ -11,6 +11,10 @@ public class SetExprIndexInstruction extends SetIndexInstruction {
 	public SetExprIndexInstruction(Block index) {
 		_index = index;
 	}
+
+	public Block getIndexBlock() {
+		return _index;
+	}
 	
 	protected Obj getIndex() {
 		Block index = _index.duplicate();
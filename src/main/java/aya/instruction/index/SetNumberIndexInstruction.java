@@ -10,6 +10,10 @@ public class SetNumberIndexInstruction extends SetIndexInstruction {
 	public SetNumberIndexInstruction(int index) {
 		_index = index;
 	}
+
+	public int getIntIndex() {
+		return _index;
+	}
 	
 	@Override
 	protected Obj getIndex() {
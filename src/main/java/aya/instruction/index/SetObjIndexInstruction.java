@@ -9,6 +9,10 @@ public class SetObjIndexInstruction extends SetIndexInstruction {
 	public SetObjIndexInstruction(Obj index) {
 		_index = index;
 	}
+
+	public Obj getObjIndex() {
+		return _index;
+	}
 	
 	protected Obj getIndex() {
 		return _index;
@@ -12,6 +12,10 @@ public class SetVarIndexInstruction extends SetIndexInstruction {
 	public SetVarIndexInstruction(Symbol var) {
 		_var = var;
 	}
+
+	public Symbol getSymbol() {
+		return _var;
+	}
 	
 	@Override
 	protected Obj getIndex() {
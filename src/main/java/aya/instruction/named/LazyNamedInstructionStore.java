@@ -0,0 +1,86 @@
+package aya.instruction.named;
+
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+import aya.Aya;
+import aya.exceptions.runtime.ValueError;
+import aya.obj.block.Block;
+
+/**
+ * Wraps a store which is only created when one of its instructions is first
+ * executed (or when the help data is searched). Looking up a name starting
+ * with the prefix returns a placeholder instruction, so code using the store
+ * can be parsed and cached without creating it.
+ */
+public class LazyNamedInstructionStore {
+
+	private final String _prefix;
+	private final Supplier<NamedInstructionStore> _supplier;
+	private volatile NamedInstructionStore _store;
+	private final HashMap<String, NamedInstruction> _placeholders;
+
+	public LazyNamedInstructionStore(String prefix, Supplier<NamedInstructionStore> supplier) {
+		_prefix = prefix;
+		_supplier = supplier;
+		_store = null;
+		_placeholders = new HashMap<String, NamedInstruction>();
+	}
+
+	public String getPrefix() {
+		return _prefix;
+	}
+
+	public boolean isLoaded() {
+		return _store != null;
+	}
+
+	/** Create the store and add its help data if it has not been created yet */
+	public synchronized NamedInstructionStore load(Aya aya) {
+		if (_store == null) {
+			NamedInstructionStore store = _supplier.get();
+			store.initHelpData(aya);
+			_store = store;
+		}
+		return _store;
+	}
+
+	/**
+	 * Return the placeholder for the name, or null if the name does not have
+	 * the prefix. Once the store is loaded, names it does not define return null
+	 */
+	public synchronized NamedInstruction getInstruction(String name) {
+		if (!name.startsWith(_prefix)) return null;
+		if (_store != null && _store.getInstruction(name) == null) return null;
+
+		NamedInstruction i = _placeholders.get(name);
+		if (i == null) {
+			i = new Placeholder(name);
+			_placeholders.put(name, i);
+		}
+		return i;
+	}
+
+	private class Placeholder extends NamedInstruction {
+
+		private volatile NamedInstruction _instruction;
+
+		public Placeholder(String name) {
+			super(name);
+			_instruction = null;
+		}
+
+		@Override
+		public void execute(Block block) {
+			NamedInstruction i = _instruction;
+			if (i == null) {
+				i = load(Aya.getInstance()).getInstruction(_name);
+				if (i == null) {
+					throw new ValueError("Named instruction :{" + _name + "} does not exist");
+				}
+				_instruction = i;
+			}
+			i.execute(block);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package aya.instruction.named;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+import aya.Aya;
+
+/**
+ * Index of the instructions of every named instruction store. Names are
+ * resolved with a single lookup: in the instruction map for stores which
+ * have been created, or by the prefix up to and including the first '.'
+ * for lazy stores.
+ *
+ * Additional stores can be provided by other jars on the classpath using
+ * {@link ServiceLoader}: list the class names in
+ * <code>META-INF/services/aya.instruction.named.NamedInstructionStore</code>.
+ * Each class must have a public no-argument constructor.
+ */
+public class NamedInstructionRegistry {
+
+	private final HashMap<String, NamedInstruction> _instructions;
+	private final HashMap<String, LazyNamedInstructionStore> _lazyStores;
+
+	public NamedInstructionRegistry() {
+		_instructions = new HashMap<String, NamedInstruction>();
+		_lazyStores = new HashMap<String, LazyNamedInstructionStore>();
+	}
+
+	/** Add the instructions and help data of the store. Names which are already defined are not replaced */
+	public void add(NamedInstructionStore store, Aya aya) {
+		for (NamedInstruction i : store.getInstructions()) {
+			_instructions.putIfAbsent(i.getName(), i);
+		}
+		store.initHelpData(aya);
+	}
+
+	/**
+	 * Register a store which is created the first time one of its
+	 * instructions is executed. The prefix must end with a '.' and all
+	 * instruction names of the store must start with it
+	 */
+	public void addLazy(String prefix, Supplier<NamedInstructionStore> store) {
+		if (!prefix.endsWith(".") || prefix.indexOf('.') != prefix.length() - 1) {
+			throw new IllegalArgumentException("Lazy named instruction store prefix must contain a single trailing '.': " + prefix);
+		}
+		_lazyStores.putIfAbsent(prefix, new LazyNamedInstructionStore(prefix, store));
+	}
+
+	/**
+	 * Add the stores provided by {@link ServiceLoader}. Return a message
+	 * for each store which could not be loaded
+	 */
+	public ArrayList<String> addServices(Aya aya) {
+		ArrayList<String> errors = new ArrayList<String>();
+		Iterator<NamedInstructionStore> it = ServiceLoader.load(NamedInstructionStore.class).iterator();
+		while (true) {
+			try {
+				if (!it.hasNext()) break;
+			} catch (ServiceConfigurationError e) {
+				// Unreadable configuration file, the iterator may not recover
+				errors.add(e.getMessage());
+				break;
+			}
+			try {
+				add(it.next(), aya);
+			} catch (ServiceConfigurationError e) {
+				errors.add(e.getMessage());
+			}
+		}
+		return errors;
+	}
+
+	/** Create all lazy stores */
+	public void loadAll(Aya aya) {
+		for (LazyNamedInstructionStore x : _lazyStores.values()) {
+			x.load(aya);
+		}
+	}
+
+	public NamedInstruction get(String name) {
+		NamedInstruction i = _instructions.get(name);
+		if (i != null) return i;
+
+		final int dot = name.indexOf('.');
+		if (dot < 0) return null;
+		LazyNamedInstructionStore lazy = _lazyStores.get(name.substring(0, dot + 1));
+		return lazy == null ? null : lazy.getInstruction(name);
+	}
+}
@@ -1,5 +1,6 @@
 package aya.instruction.named;
 
+import java.util.Collection;
 import java.util.HashMap;
 
 import aya.Aya;
@@ -21,6 +22,10 @@ public abstract class NamedInstructionStore {
 		return _instructions.get(name);
 	}
 	
+	public Collection<NamedInstruction> getInstructions() {
+		return _instructions.values();
+	}
+	
 	public void initHelpData(Aya aya) {
 		for (HashMap.Entry<String, NamedInstruction> pair : _instructions.entrySet()) {
 			NamedInstruction i = pair.getValue();
@@ -4,6 +4,7 @@ import static aya.obj.Obj.BLOCK;
 import static aya.obj.Obj.CHAR;
 import static aya.obj.Obj.DICT;
 import static aya.obj.Obj.LIST;
+import static aya.obj.Obj.NDARRAY;
 import static aya.obj.Obj.NUMBER;
 import static aya.obj.Obj.STR;
 import static aya.obj.Obj.SYMBOL;
@@ -48,6 +49,7 @@ import aya.obj.symbol.SymbolTable;
 import aya.parser.tokens.StringToken;
 import aya.util.Casting;
 import aya.util.DictReader;
+import aya.util.ElementwiseBlock;
 import aya.util.Triple;
 import aya.util.VectorizedFunctions;
 
@@ -300,6 +302,7 @@ class OP_Colon_Percent extends OpInstruction {
 		arg("NN", "mod");
 		vect();
 		setOverload(2, "mod");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -378,6 +381,12 @@ class OP_Colon_Times extends OpInstruction {
 				List l1 = asList(b);
 				List l2 = asList(a);
 
+				List res = outerElementwise(l2, l1, expr);
+				if (res != null) {
+					block.push(res);
+					return;
+				}
+
 				ArrayList<Obj> out = new ArrayList<Obj>(l2.length());
 				for (int i = 0; i < l2.length(); i++) {
 					out.add(l1.map1arg(expr, l2.getExact(i)));
@@ -398,6 +407,25 @@ class OP_Colon_Times extends OpInstruction {
 			throw new TypeError(this, c, b, a);
 		}
 	}
+
+	/**
+	 * If both lists are numeric and the block is operator only, compute each
+	 * row with one vectorized operation instead of calling the block per pair.
+	 * Returns null if the fast path does not apply
+	 */
+	private static List outerElementwise(List rows, List cols, Block expr) {
+		if (!rows.isa(Obj.NUMBERLIST) || !cols.isa(Obj.NUMBERLIST) || cols.length() == 0) return null;
+		final ElementwiseBlock eb = ElementwiseBlock.compile(expr, 2);
+		if (eb == null) return null;
+
+		ArrayList<Obj> out = new ArrayList<Obj>(rows.length());
+		for (int i = 0; i < rows.length(); i++) {
+			final List row = eb.applyList(cols.length(), rows.getExact(i), cols);
+			if (row == null) return null;
+			out.add(row);
+		}
+		return new List(out);
+	}
 }
 
 // / - 47
@@ -425,6 +453,7 @@ class OP_Colon_LessThan extends OpInstruction {
 		arg("NN|CC|SS", "less then or equal to");
 		vect();
 		setOverload(2, "leq");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -494,6 +523,7 @@ class OP_Colon_GreaterThan extends OpInstruction {
 		arg("NN|CC|SS", "greater than or equal to");
 		setOverload(2, "geq");
 		vect();
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -722,6 +752,8 @@ class OP_Colon_E extends OpInstruction {
 		
 		if (a.isa(DICT)) {
 			block.push(Num.fromInt( ((Dict)a).size()) );
+		} else if (a.isa(NDARRAY)) {
+			block.push(List.asNDArray(asList(a)).shape());
 		} else if (a.isa(LIST)) {
 			block.push(shape(asList(a)));
 		} else {
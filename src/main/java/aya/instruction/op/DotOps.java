@@ -23,7 +23,9 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Stack;
 import java.util.regex.Pattern;
 
@@ -61,9 +63,12 @@ import aya.obj.number.Number;
 import aya.obj.number.NumberMath;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
+import aya.parser.CompileCache;
 import aya.parser.Parser;
 import aya.parser.ParserString;
 import aya.util.Casting;
+import aya.util.ElementwiseBlock;
+import aya.util.ObjComparator;
 import aya.util.VectorizedFunctions;
 
 public class DotOps {
@@ -203,6 +208,7 @@ class OP_Dot_Bang extends OpInstruction {
 		arg("B", "copy block without header");
 		setOverload(1, "signum");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -315,6 +321,7 @@ class OP_Dot_Percent extends OpInstruction {
 		init(".%");
 		arg("NN", "integer division");
 		setOverload(2, "idiv");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -374,6 +381,13 @@ class OP_Dot_And extends OpInstruction {
 		} else if ( c.isa(STR) && (a.isa(STR) || a.isa(CHAR)) && (b.isa(STR) || b.isa(CHAR))) {
 			block.push(List.fromString( c.str().replaceAll(b.str(), a.str()) ));
 		} else if (a.isa(BLOCK) && b.isa(LIST) && c.isa(LIST)) {
+			// Numeric lists of the same length with an operator only block
+			// are zipped with a single vectorized operation
+			final List zipped = zipElementwise(asList(c), asList(b), (Block)a);
+			if (zipped != null) {
+				block.push(zipped);
+				return;
+			}
 			Block initial = new Block();
 			initial.push(c);
 			initial.push(b);
@@ -384,6 +398,14 @@ class OP_Dot_And extends OpInstruction {
 		}
 	}
 
+	private static List zipElementwise(List l1, List l2, Block blk) {
+		if (l1.isa(Obj.NUMBERLIST) && l2.isa(Obj.NUMBERLIST) && l1.length() == l2.length() && l1.length() > 0) {
+			final ElementwiseBlock eb = ElementwiseBlock.compile(blk, 2);
+			if (eb != null) return eb.applyList(l1.length(), l1, l2);
+		}
+		return null;
+	}
+
 	private Obj convertBase(Obj to_b, Obj from_b, Obj num) {
 		try {
 			return BaseConversion.convertBase(asNumber(from_b).toInt(), asNumber(to_b).toInt(), num);
@@ -603,6 +625,7 @@ class OP_Dot_FwdSlash extends OpInstruction {
 		init("./");
 		arg("N", "ceiling");
 		setOverload(1, "ceil");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -873,13 +896,15 @@ class OP_Dot_Append extends OpInstruction {
 // C - 67
 class OP_Dot_SortUsing extends OpInstruction {
 
+	/** Use a parallel sort when sorting at least this many numeric keys */
+	private static final int PARALLEL_SORT_MIN = 1 << 13;
+
 	public OP_Dot_SortUsing() {
 		init(".C");
 		arg("LB", "sort least to greatest by applying B to L");
 		arg("NN", "xor");
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Override
 	public void execute(Block block) {
 		Obj a = block.pop();
@@ -890,27 +915,34 @@ class OP_Dot_SortUsing extends OpInstruction {
 		}
 		else if (a.isa(BLOCK) && b.isa(LIST)) {
 			final Block blk = ((Block)a).duplicate();
-			List objs = asList(b);
-			List key_obj = objs.map(blk);
+			final List objs = asList(b);
+			final List key_obj = objs.map(blk);
+			if (key_obj.length() != objs.length()) {
+				throw new ValueError(".C: key block must return exactly one key per item");
+			}
 
-			//Convert keys to int array
-			ArrayList<SUItem> items = new ArrayList<SUItem>(key_obj.length());
-			try {
+			// Decorate-sort-undecorate: the keys are computed once and the
+			// indices are sorted by key. Both sorts are stable
+			final Integer[] idx = new Integer[objs.length()];
+			for (int i = 0; i < idx.length; i++) idx[i] = i;
 
-				for (int i = 0; i < objs.length(); i++) {
-					items.add(new SUItem(objs.getExact(i), (Comparable) key_obj.getExact(i)));
+			if (key_obj.isa(Obj.DOUBLELIST)) {
+				final double[] keys = key_obj.toNumberList().todoubleArray();
+				final Comparator<Integer> cmp = (i, j) -> Double.compare(keys[i] + 0.0, keys[j] + 0.0);
+				if (idx.length >= PARALLEL_SORT_MIN) {
+					Arrays.parallelSort(idx, cmp);
+				} else {
+					Arrays.sort(idx, cmp);
 				}
-				Collections.sort(items);
-
-			} catch (ClassCastException e) {
-				throw new ValueError(".C: all objects must be comparable to each other");
+			} else {
+				final Obj[] keys = new Obj[idx.length];
+				for (int i = 0; i < keys.length; i++) keys[i] = key_obj.getExact(i);
+				Arrays.sort(idx, (i, j) -> ObjComparator.INSTANCE.compare(keys[i], keys[j]));
 			}
 
-
-
-			ArrayList<Obj> out = new ArrayList<Obj>(items.size());
-			for (SUItem i : items) {
-				out.add(i.o);
+			ArrayList<Obj> out = new ArrayList<Obj>(idx.length);
+			for (int i : idx) {
+				out.add(objs.getExact(i));
 			}
 
 			block.push(new List(out));
@@ -920,23 +952,6 @@ class OP_Dot_SortUsing extends OpInstruction {
 			throw new TypeError(this, a);
 		}
 	}
-
-	@SuppressWarnings("rawtypes")
-	class SUItem<T extends Comparable> implements Comparable<SUItem<T>>{
-		public Obj o;
-		public T d;
-		public SUItem(Obj o, T d) {
-			this.o = o;
-			this.d = d;
-		}
-		@SuppressWarnings("unchecked")
-		public int compareTo(SUItem<T> i) {
-			return d.compareTo(i.d);
-		}
-	}
-
-
-
 }
 
 // D - 68
@@ -1443,6 +1458,7 @@ class OP_Dot_BackSlash extends OpInstruction {
 		arg("N", "floor");
 		setOverload(1, "floor");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1482,6 +1498,7 @@ class OP_Dot_Pow extends OpInstruction {
 		arg("S", "quote regex");
 		setOverload(1, "sqrt");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1529,6 +1546,7 @@ class OP_Dot_Bar extends OpInstruction {
 		arg("N", "absolute value");
 		arg("B", "get meta information for a block");
 		setOverload(1, "abs");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1602,7 +1620,7 @@ class OP_Dot_Tilde extends OpInstruction {
 
 		if (a.isa(STR) || a.isa(CHAR)) {
 			try {
-				block.push( Parser.compile(a.str(), Aya.getInstance()) );
+				block.push(new Block(CompileCache.compile(a.str(), Aya.getInstance()).duplicate()));
 			} catch (ParserException e) {
 				throw new InternalAyaRuntimeException(e.typeSymbol(), e);
 			}
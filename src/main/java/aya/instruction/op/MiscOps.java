@@ -176,6 +176,7 @@ class OP_Fact extends OpInstruction {
 		arg("N", "factorial");
 		setOverload(1, "fact");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -296,6 +297,7 @@ class OP_Acosine extends OpInstruction {
 		arg("N", "inverse cosine");
 		setOverload(1, "acos");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -354,6 +356,7 @@ class OP_Log extends OpInstruction {
 		arg("N", "base-10 logarithm");
 		setOverload(1, "log");
 		vect();
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -392,6 +395,7 @@ class OP_Asine extends OpInstruction {
 		arg("N", "inverse sine");
 		vect();
 		setOverload(1, "asin");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -429,6 +433,7 @@ class OP_Atangent extends OpInstruction {
 		arg("N", "inverse tangent");
 		vect();
 		setOverload(1, "atan");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -547,6 +552,7 @@ class OP_Cosine extends OpInstruction {
 		arg("N", "cosine");
 		vect();
 		setOverload(1, "cos");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -623,6 +629,7 @@ class OP_Me extends OpInstruction {
 		arg("N", "exponential function");
 		vect();
 		setOverload(1, "exp");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -660,6 +667,7 @@ class OP_Mi extends OpInstruction {
 		arg("N", "imag part of complex number");
 		vect();
 		setOverload(1, "imag");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -729,6 +737,7 @@ class OP_Ln extends OpInstruction {
 		arg("N", "natural logarithm");
 		vect();
 		setOverload(1, "ln");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -844,6 +853,7 @@ class OP_Sine extends OpInstruction {
 		arg("N", "sine");
 		vect();
 		setOverload(1, "sin");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -884,6 +894,7 @@ class OP_Tangent extends OpInstruction {
 		arg("N", "tangent");
 		vect();
 		setOverload(1, "tan");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -29,6 +29,7 @@ public abstract class OpInstruction extends Instruction {
 	public String name;
 	private OpOverload _overload;
 	public OpDoc _doc;
+	private int _elementwise_args = 0;
 	
 	public String getDocTypeStr() {
 		if (_doc == null) {
@@ -66,6 +67,20 @@ public abstract class OpInstruction extends Instruction {
 		_doc.vect();
 	}
 	
+	/**
+	 * Declare that the operator takes nargs arguments and that applying
+	 * it to a list of numbers gives the same result as applying it to
+	 * each number in the list
+	 */
+	public void elementwise(int nargs) {
+		_elementwise_args = nargs;
+	}
+	
+	/** The number of args if the operator is element-wise on numbers, 0 otherwise */
+	public int elementwiseArgs() {
+		return _elementwise_args;
+	}
+	
 	public void init(String name) {
 		this.name = name;
 		if (name.length() == 1) {
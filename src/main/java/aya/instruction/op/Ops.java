@@ -48,6 +48,7 @@ import aya.obj.dict.Dict;
 import aya.obj.dict.DictIndexing;
 import aya.obj.list.GenericList;
 import aya.obj.list.List;
+import aya.obj.list.ListFolds;
 import aya.obj.list.ListRangeUtils;
 import aya.obj.list.Str;
 import aya.obj.list.numberlist.NumberList;
@@ -58,7 +59,8 @@ import aya.obj.number.Number;
 import aya.obj.number.NumberMath;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
-import aya.parser.Parser;
+import aya.parser.CompileCache;
+import aya.util.ElementwiseBlock;
 import aya.util.FileUtils;
 import aya.util.Pair;
 import aya.util.VectorizedFunctions;
@@ -329,6 +331,16 @@ class OP_Percent extends OpInstruction {
 		int length = list.length();
 		if(length == 0) {
 			resultBlock.push(Num.ZERO);
+			return;
+		} else if (ListFolds.hasFastPath(list, foldBlock)) {
+			resultBlock.push(ListFolds.foldl(list, foldBlock));
+			return;
+		}
+		
+		// Operator only blocks can be folded without the interpreter
+		final ElementwiseBlock eb = list.isa(NUMBERLIST) ? ElementwiseBlock.compile(foldBlock, 2) : null;
+		if (eb != null) {
+			resultBlock.push(eb.fold(list));
 		} else {
 			//Push all but the last item
 			//for(int i = 0; i < list.size()-1; i++) {
@@ -354,6 +366,7 @@ class OP_And extends OpInstruction {
 		arg("SS", "list all expressions matching the regex");
 		setOverload(2, "and");
 		vect();
+		elementwise(2);
 	}
 
 	@Override
@@ -402,6 +415,7 @@ class OP_Times extends OpInstruction {
 		arg("NN", "multiply");
 		vect();
 		setOverload(2, "mul");
+		elementwise(2);
 	}
 	
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -443,6 +457,7 @@ class OP_Plus extends OpInstruction {
 		arg("SA|AS", "append string");
 		vect();
 		setOverload(2, "add");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -490,6 +505,7 @@ class OP_Minus extends OpInstruction {
 		arg("NN|CC", "subtract");
 		vect();
 		setOverload(2, "sub");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -535,6 +551,7 @@ class OP_Divide extends OpInstruction {
 		arg("NN", "divide");
 		vect();
 		setOverload(2, "div");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -589,6 +606,7 @@ class OP_LessThan extends OpInstruction {
 		init("<");
 		arg("NN|CC|SS", "less than");
 		setOverload(2, "lt");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -670,6 +688,7 @@ class OP_GreaterThan extends OpInstruction {
 		arg("NN|CC|SS", "greater than");
 		vect();
 		setOverload(2, "gt");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1348,6 +1367,7 @@ class OP_T extends OpInstruction {
 		arg("N", "negate");
 		vect();
 		setOverload(1, "negate");
+		elementwise(1);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1522,16 +1542,11 @@ class OP_W extends OpInstruction {
 			if(list.length() == 0) {
 				return Num.ZERO;
 			}
-			//Push all but the last item
-			Block exec_block = new Block();
-			for(int i = list.length()-1; i > 0; i--) {
-				exec_block.add(Ops.OP_PLUS);
-				exec_block.add(list.getExact(i));
+			Obj total = list.getExact(0);
+			for (int i = 1; i < list.length(); i++) {
+				total = Ops.OP_PLUS.exec2arg(total, list.getExact(i));
 			}
-			//Push the last element outside the loop so that there is not an extra plus (1 1+2+3+)
-			exec_block.add(list.getExact(0)); 
-			exec_block.eval();
-			return exec_block.pop();
+			return total;
 		}
 	}
 
@@ -1620,6 +1635,7 @@ class OP_Caret extends OpInstruction {
 		arg("NN", "power");
 		arg("SS", "levenshtein distance");
 		setOverload(2, "pow");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1660,6 +1676,7 @@ class OP_Bar extends OpInstruction {
 		init("|");
 		arg("NN", "logical or");
 		setOverload(2,  "or");
+		elementwise(2);
 	}
 
 	private static NumberListOp NUML_OP = new NumberListOp() {
@@ -1711,7 +1728,7 @@ class OP_Tilde extends OpInstruction {
 			block.addAll(((Block)(a)).getInstructions().getInstrucionList());
 		} else if (a.isa(STR) || a.isa(CHAR)) {
 			try {
-				block.addAll(Parser.compile(a.str(), Aya.getInstance()).getInstructions().getInstrucionList());
+				block.addAll(CompileCache.compile(a.str(), Aya.getInstance()).getInstrucionList());
 			} catch (ParserException e) {
 				throw new InternalAyaRuntimeException(e.typeSymbol(), e);
 			}
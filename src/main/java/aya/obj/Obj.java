@@ -34,6 +34,7 @@ public abstract class Obj {
 	public static final byte OBJLIST = 24;
 	public static final byte STRLIST = 25;
 	public static final byte DOUBLELIST = 26;
+	public static final byte NDARRAY = 27;
 
 
 	public static final byte CHAR = 3;
@@ -70,6 +71,8 @@ public abstract class Obj {
 			return "NUMBERITEMLIST";
 		case DOUBLELIST:
 			return "DOUBLELIST";
+		case NDARRAY:
+			return "NDARRAY";
 		case LIST:
 			return "LIST";
 		case BLOCK: 
@@ -104,6 +107,7 @@ public abstract class Obj {
 		case OBJLIST : return SymbolConstants.LIST;
 		case STRLIST : return SymbolConstants.LIST;
 		case DOUBLELIST : return SymbolConstants.LIST;
+		case NDARRAY : return SymbolConstants.LIST;
 		
 		case SYMBOL : return SymbolConstants.SYM;
 		case STR : return SymbolConstants.STR;
@@ -7,9 +7,11 @@ import java.util.EmptyStackException;
 import java.util.HashMap;
 import java.util.Stack;
 
+import aya.Aya;
 import aya.ReprStream;
 import aya.exceptions.runtime.AyaRuntimeException;
 import aya.exceptions.runtime.EmptyStackError;
+import aya.exceptions.runtime.StoppedError;
 import aya.exceptions.runtime.ValueError;
 import aya.instruction.DataInstruction;
 import aya.instruction.Instruction;
@@ -157,6 +159,7 @@ public class Block extends Obj {
 	/** Evaluates each instruction in the instruction stack and places the result in the output stack */ 
 	public void eval() {
 		while (!instructions.isEmpty()) {
+			if (Aya.isStopRequested()) throw new StoppedError();
 			Instruction instr = instructions.pop();
 			
 			try {
@@ -0,0 +1,54 @@
+package aya.obj.block;
+
+import java.util.Stack;
+
+import aya.instruction.Instruction;
+import aya.instruction.InstructionStack;
+import aya.obj.Obj;
+
+/**
+ * A block prepared to be called repeatedly from Java (map, filter, sort
+ * keys, ...). The instructions are captured once and a single frame is
+ * reused for every call. The frame evaluates the captured instructions in
+ * place (see {@link InstructionStack#setShared}) so a call does not copy
+ * them. Arguments are pushed directly to the frame's stack instead of
+ * being wrapped in DataInstructions.
+ *
+ * The block header (if any) is kept as the first instruction so locals and
+ * typed arguments behave exactly as if the block had been evaluated normally.
+ */
+public class CompiledCallable {
+
+	private final Instruction[] _instructions;
+	private final Obj[] _bound;
+	private final Block _frame;
+
+	/**
+	 * @param block The block to call. It is not modified
+	 * @param bound Objects pushed before the arguments on every call
+	 */
+	public CompiledCallable(Block block, Obj... bound) {
+		_instructions = block.getInstructions().getInstrucionList().toArray(new Instruction[0]);
+		_bound = bound;
+		_frame = new Block();
+	}
+
+	/**
+	 * Call the block with the given arguments (bottom of the stack first).
+	 * Return the output stack. The stack belongs to this callable and is
+	 * only valid until the next call
+	 */
+	public Stack<Obj> invoke(Obj... args) {
+		_frame.clear();
+		for (Obj o : _bound) _frame.push(o);
+		for (Obj o : args) _frame.push(o);
+		_frame.getInstructions().setShared(_instructions);
+		_frame.eval();
+		return _frame.getStack();
+	}
+
+	/** Call the block and return the truth value of the top of the stack */
+	public boolean test(Obj... args) {
+		return invoke(args).peek().bool();
+	}
+}
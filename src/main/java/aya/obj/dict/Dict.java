@@ -24,6 +24,7 @@ public class Dict extends Obj {
 	/** The map of key-value pairs */
 	private HashMap<Symbol, Obj> _vars;
 	private Dict _meta; // Quick lookup for meta
+	private final int _generation = Aya.currentGeneration();
 
 	/** Create a new empty dict, use the input dict as the metatable */
 	private Dict(HashMap<Symbol, Obj> vars, Dict metatable) {
@@ -47,6 +48,7 @@ public class Dict extends Obj {
 
 	/** Set the metatable to the input dict */
 	public void setMetaTable(Dict d) {
+		checkMutable();
 		_vars.put(SymbolConstants.KEYVAR_META, d);
 		_meta = d;
 	}
@@ -198,6 +200,7 @@ public class Dict extends Obj {
 	 * if not, create a new pair
 	 */ 
 	public void set(Symbol key, Obj o) {
+		checkMutable();
 		_vars.put(key,  o);
 		
 		if (key.id() == SymbolConstants.KEYVAR_META.id() && o.isa(Obj.DICT))
@@ -208,6 +211,7 @@ public class Dict extends Obj {
 	
 	/** Update values in this dict to the values from the input dict */
 	public void update(Dict other) {
+		checkMutable();
 		_vars.putAll(other._vars);
 		if (other._meta != null) _meta = other._meta;
 	}
@@ -407,6 +411,7 @@ public class Dict extends Obj {
 	}
 	
 	public void clear() {
+		checkMutable();
 		_vars.clear();
 		_meta = null;
 	}
@@ -451,9 +456,15 @@ public class Dict extends Obj {
 	}
 
 	public void remove(Symbol key) {
+		checkMutable();
 		_vars.remove(key);
 	}
 	
+	/** Parallel workers may only modify dicts they created */
+	private void checkMutable() {
+		Aya.checkMutable(_generation);
+	}
+	
 
 
 	/** Return all variables as a list of pairs */
@@ -481,6 +492,7 @@ public class Dict extends Obj {
 
 	/** Merge variables from the given variable set only if they are defined in this one */
 	public void mergeDefined(Dict other) {
+		checkMutable();
 		for (HashMap.Entry<Symbol, Obj> e : other._vars.entrySet()) {
 			if (_vars.containsKey(e.getKey())) {
 				_vars.put(e.getKey(), e.getValue());
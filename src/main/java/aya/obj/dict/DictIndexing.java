@@ -3,11 +3,13 @@ package aya.obj.dict;
 import static aya.util.Casting.asList;
 
 import java.util.ArrayList;
+import java.util.Stack;
 
 import aya.Aya;
 import aya.exceptions.runtime.IndexError;
 import aya.obj.Obj;
 import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
 import aya.obj.list.List;
 import aya.obj.symbol.Symbol;
 import aya.obj.symbol.SymbolConstants;
@@ -60,18 +62,14 @@ public class DictIndexing {
 	
 	public static Dict map(Dict dict, Block block) {
 		Dict out = new Dict();
-		Block b = new Block();
+		CompiledCallable fn = new CompiledCallable(block);
 
 		ArrayList<Symbol> symKeys = dict.keys();
 		for (Symbol key : symKeys) {
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.push(key);
-			b.push(dict.get(key));
-			b.eval();
-			if (!b.stackEmpty()) {
-				out.set(key, b.pop());
+			Stack<Obj> result = fn.invoke(key, dict.get(key));
+			if (!result.isEmpty()) {
+				out.set(key, result.pop());
 			}
-			b.clear();
 		}
 		return out;
 	}
@@ -79,18 +77,13 @@ public class DictIndexing {
 
 	public static Dict filter(Dict dict, Block block) {
 		Dict out = new Dict();
-		Block b = new Block();
+		CompiledCallable fn = new CompiledCallable(block);
 
 		ArrayList<Symbol> symKeys = dict.keys();
 		for (Symbol key : symKeys) {
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.push(key);
-			b.push(dict.get(key));
-			b.eval();
-			if (b.pop().bool()) {
+			if (fn.invoke(key, dict.get(key)).pop().bool()) {
 				out.set(key, dict.get(key));
 			}
-			b.clear();
 		}
 		
 		return out;
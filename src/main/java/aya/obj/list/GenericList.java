@@ -14,6 +14,7 @@ import aya.obj.list.numberlist.NumberList;
 import aya.obj.number.Num;
 import aya.obj.number.Number;
 import aya.util.Casting;
+import aya.util.ObjComparator;
 
 /** List of objects of any type */
 public class GenericList extends ListImpl {
@@ -229,20 +230,7 @@ public class GenericList extends ListImpl {
 
 	@Override
 	public void sort() {
-		if (_list.size() == 0) return;
-
-		// Are they all strings?
-		ArrayList<Str> strs = new ArrayList<Str>();
-		for (Obj o : _list) {
-			if (o.isa(Obj.STR)) {
-				strs.add(Casting.asStr(o));
-			} else {
-				throw new ValueError("Cannot sort generic list: " + repr());
-			}
-		}
-		Collections.sort(strs);
-		_list.clear();
-		for (Str s : strs) _list.add(List.fromStr(s));
+		_list.sort(ObjComparator.INSTANCE);
 	}
 
 	@Override
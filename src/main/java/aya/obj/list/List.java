@@ -7,23 +7,27 @@ import static aya.util.Casting.asNumberList;
 
 import java.util.ArrayList;
 
+import aya.Aya;
 import aya.ReprStream;
 import aya.exceptions.runtime.IndexError;
 import aya.exceptions.runtime.TypeError;
 import aya.exceptions.runtime.ValueError;
-import aya.instruction.DataInstruction;
 import aya.obj.Obj;
 import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
 import aya.obj.list.numberlist.DoubleList;
+import aya.obj.list.numberlist.NDArray;
 import aya.obj.list.numberlist.NumberList;
 import aya.obj.number.Num;
 import aya.util.Casting;
+import aya.util.ElementwiseBlock;
 import aya.util.Pair;
 
 /** List supertype */
 public class List extends Obj {
 	
 	private ListImpl _list;
+	private final int _generation = Aya.currentGeneration();
 	
 	public List(ListImpl list) {
 		this._list = list.promote();
@@ -40,6 +44,11 @@ public class List extends Obj {
 	protected ListImpl impl() {
 		return _list;
 	}
+	
+	/** Parallel workers may only modify lists they created */
+	private void checkMutable() {
+		Aya.checkMutable(_generation);
+	}
 
 	public static List fromString(String str) {
 		return new List(new Str(str));
@@ -107,6 +116,10 @@ public class List extends Obj {
 			return false;
 		}
 		
+		if (_list instanceof NDArray) {
+			return true;
+		}
+		
 		if (!(getExact(0).isa(LIST))) {
 			return false;
 		}
@@ -139,6 +152,8 @@ public class List extends Obj {
 	public List transpose() {
 		if (length() == 0) {
 			return new List();
+		} else if (_list instanceof NDArray) {
+			return new List(((NDArray)_list).transpose());
 		} else if (isRect()) {
 			return _transpose2d();
 		} else if (noInnerLists()) {
@@ -165,7 +180,7 @@ public class List extends Obj {
 		for (int i = 0; i < length(); i++) {
 			List list = Casting.asList(getExact(i));
 			if (all_double_lists && list.isa(Obj.DOUBLELIST)) {
-				double_lists.add((DoubleList)list.toNumberList());
+				double_lists.add(DoubleList.asDoubleList(list.toNumberList()));
 			} else {
 				all_double_lists = false;
 			}
@@ -201,6 +216,11 @@ public class List extends Obj {
 		if (dims.length() == 0)
 			throw new ValueError("reshape: must have non-empty dims");
 		
+		if (_list instanceof NDArray) {
+			ListImpl out = ((NDArray)_list).reshape(dims.toIntArray());
+			if (out != null) return new List(out);
+		}
+		
 		if (dims.length() > 5)
 			throw new ValueError("reshape: maximum rank of 5, recieved rank " 
 					+ dims.length() + " resulting from " + dims.repr());
@@ -334,6 +354,10 @@ public class List extends Obj {
 	public static Str asStr(List l) {
 		return (Str)(l.impl());
 	}
+	
+	public static NDArray asNDArray(List l) {
+		return (NDArray)(l.impl());
+	}
 
 	/** 
 	 * Maps a block to a list and returns the new list. The block is not effected
@@ -341,14 +365,13 @@ public class List extends Obj {
 	public List map(Block block) {
 		int len = length();
 		if (len > 0) {
+			final List fast = mapElementwise(block);
+			if (fast != null) return fast;
+			
 			ArrayList<Obj> out = new ArrayList<Obj>(len);
-			Block b = new Block();
+			CompiledCallable fn = new CompiledCallable(block);
 			for (int i = 0; i < len; i++) {
-				b.addAll(block.getInstructions().getInstrucionList());
-				b.add(new DataInstruction(getExact(i)));
-				b.eval();
-				out.addAll(b.getStack());
-				b.clear();
+				out.addAll(fn.invoke(getExact(i)));
 			}
 			return new List(out);
 		} else {
@@ -362,18 +385,26 @@ public class List extends Obj {
 	public List map1arg(Block block, Obj obj) {
 		int len = length();
 		ArrayList<Obj> out = new ArrayList<Obj>(len);
-		Block b = new Block();
+		CompiledCallable fn = new CompiledCallable(block, obj);
 		for (int i = 0; i < len; i++) {
-			b.push(obj);
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.add(new DataInstruction(getExact(i)));
-			b.eval();
-			out.addAll(b.getStack());
-			b.clear();
+			out.addAll(fn.invoke(getExact(i)));
 		}
 		return new List(out);
 	}
 
+	/**
+	 * If this is a list of numbers and the block only contains number literals
+	 * and element-wise operators, apply the block to the whole list at once.
+	 * Otherwise return null
+	 */
+	private List mapElementwise(Block block) {
+		if (isa(Obj.NUMBERLIST) && length() > 0) {
+			final ElementwiseBlock eb = ElementwiseBlock.compile(block, 1);
+			if (eb != null) return eb.map(this);
+		}
+		return null;
+	}
+
 	/**
 	 * Filter a list using the block
 	 * 
@@ -382,17 +413,22 @@ public class List extends Obj {
 	 * @return
 	 */
 	public List filter(Block block) {
+		final List mask = mapElementwise(block);
+		if (mask != null) {
+			ArrayList<Obj> out = new ArrayList<Obj>();
+			for (int i = 0; i < length(); i++) {
+				if (mask.getExact(i).bool()) out.add(getExact(i));
+			}
+			return new List(out);
+		}
+		
 		ArrayList<Obj> out = new ArrayList<Obj>();
-		Block b = new Block();
+		CompiledCallable fn = new CompiledCallable(block);
 		for (int i = 0; i < length(); i++) {
 			final Obj o = getExact(i);
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.add(new DataInstruction(o));
-			b.eval();
-			if(b.peek().bool()) {
+			if(fn.test(o)) {
 				out.add(o);
 			}
-			b.clear();
 		}
 		return new List(out);
 	}
@@ -406,17 +442,21 @@ public class List extends Obj {
 	 */
 	public List filter(Block block, Obj dflt) {
 		ArrayList<Obj> out = new ArrayList<Obj>(length());
-		Block b = new Block();
+		final List mask = mapElementwise(block);
+		if (mask != null) {
+			for (int i = 0; i < length(); i++) {
+				out.add(mask.getExact(i).bool() ? getExact(i) : dflt);
+			}
+			return new List(out);
+		}
+		
+		CompiledCallable fn = new CompiledCallable(block);
 		for (int i = 0; i < length(); i++) {
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.add(new DataInstruction(getExact(i)));
-			b.eval();
-			if(b.peek().bool()) {
+			if(fn.test(getExact(i))) {
 				out.add(getExact(i));
 			} else {
 				out.add(dflt);
 			}
-			b.clear();
 		}
 		return new List(out);
 	}
@@ -430,13 +470,17 @@ public class List extends Obj {
 	public boolean[] filterIndex(Block block) {
 		final int len = length();
 		boolean[] out = new boolean[len];
-		Block b = new Block();
+		final List mask = mapElementwise(block);
+		if (mask != null) {
+			for (int i = 0; i < len; i++) {
+				out[i] = mask.getExact(i).bool();
+			}
+			return out;
+		}
+		
+		CompiledCallable fn = new CompiledCallable(block);
 		for (int i = 0; i < len; i++) {
-			b.addAll(block.getInstructions().getInstrucionList());
-			b.add(new DataInstruction(getExact(i)));
-			b.eval();
-			out[i] = b.peek().bool();
-			b.clear();
+			out[i] = fn.test(getExact(i));
 		}
 		return out;
 	}
@@ -478,6 +522,7 @@ public class List extends Obj {
 	
 	/** Remove and return the head of the list */
 	public Obj mutPop() {
+		checkMutable();
 		final Obj o = _list.pop();
 		promote();
 		return o;
@@ -485,6 +530,7 @@ public class List extends Obj {
 	
 	/** Remove and return the back of the list */
 	public Obj mutPopBack() {
+		checkMutable();
 		final Obj o = _list.popBack();
 		promote();
 		return o;
@@ -492,12 +538,14 @@ public class List extends Obj {
 	
 	/** Reverse the list in place */
 	public void mutReverse() {
+		checkMutable();
 		_list.reverse();
 	}
 
 	
 	/** Sort the list */
 	public void mutSort() {
+		checkMutable();
 		_list.sort();
 	}
 	
@@ -673,6 +721,7 @@ public class List extends Obj {
 	
 	/** Remove the 0-indexed item from the list */
 	public Obj mutRemoveExact(int i) {
+		checkMutable();
 		final Obj o = _list.remove(i);
 		promote();
 		return o;
@@ -680,17 +729,20 @@ public class List extends Obj {
 	
 	/** Remove each of the 0-indexed items from the list */
 	public void mutRemoveAllExact(int[] ixs) {
+		checkMutable();
 		_list.removeAll(ixs);
 		promote();
 	}
 
 	/** Remove the 0-indexed item from the list */
 	public Obj mutRemoveIndexed(int i) {
+		checkMutable();
 		return mutRemoveExact(index(i, length()));
 	}
 	
 	/** Remove each of the 0-indexed items from the list */
 	public void mutRemoveAllIndexed(int[] ixs) {
+		checkMutable();
 		index(ixs, length());
 		mutRemoveAllExact(ixs);
 	}
@@ -742,6 +794,7 @@ public class List extends Obj {
 	 * into a NumberList)
 	 */
 	public void mutSetExact(int i, Obj o) {
+		checkMutable();
 		try {
 			_list.set(i, o);
 		} catch (ClassCastException e) {
@@ -756,6 +809,7 @@ public class List extends Obj {
 	 * into a NumberList)
 	 */
 	public void mutSetIndexed(int i, Obj o) {
+		checkMutable();
 		final int len = length();
 		final int idx = index(i, len);
 		if (idx < 0 || idx >= len) {
@@ -771,6 +825,7 @@ public class List extends Obj {
 	 * into a NumberList)
 	 */
 	public void mutAdd(Obj o) {
+		checkMutable();
 		// Only automatically run the promote if this is the first item in the list
 		final boolean do_promote = length() == 0;
 		try {
@@ -788,6 +843,7 @@ public class List extends Obj {
 	 * into a NumberList)
 	 */
 	public void mutAddExact(int i, Obj o) {
+		checkMutable();
 		// Only automatically run the promote if this is the first item in the list
 		final boolean do_promote = length() == 0;
 		try {
@@ -805,6 +861,7 @@ public class List extends Obj {
 	 * ( Ex. {@code [1 2 3].extend(['a 'b 'c])} )
 	 */
 	public void mutAddAll(List l) {
+		checkMutable();
 		// Only automatically run the promote if this is the first item in the list
 		final boolean do_promote = length() == 0;
 		try {
@@ -840,10 +897,16 @@ public class List extends Obj {
 
 	/** General list setting **/
 	public void mutSetIndexed(Obj index, Obj item) {
+		checkMutable();
 		if(index.isa(Obj.NUMBER)) {
 			mutSetIndexed(asNumber(index).toInt(), item);
 		} else if (index.isa(Obj.LIST)) {
 			List l_index = asList(index);
+			
+			// Items of an NDArray are copies, convert to nested lists so they can be set
+			if (_list instanceof NDArray) {
+				_list = new GenericList(_list.getObjAL());
+			}
 
 			NDListIterator list_iter = new NDListIterator(this);
 			NDListIterator index_iter = new NDListIterator(l_index);
@@ -0,0 +1,71 @@
+package aya.obj.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import aya.obj.Obj;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+
+/**
+ * Growable output buffer for building a list one item at a time.
+ * Numbers are stored in a double[] until the first non-number is
+ * added, after which all items are stored as objects.
+ * {@link #toList()} returns the same list as new List(ArrayList)
+ */
+public class ListAccumulator {
+
+	private double[] _doubles;
+	private int _size;
+	private ArrayList<Obj> _objs;
+
+	public ListAccumulator() {
+		_doubles = new double[16];
+		_size = 0;
+		_objs = null;
+	}
+
+	public void add(Obj o) {
+		if (_objs != null) {
+			_objs.add(o);
+		} else if (o.isa(Obj.NUM)) {
+			add(((Num)o).toDouble());
+		} else {
+			_objs = new ArrayList<Obj>(Math.max(16, _size * 2));
+			for (int i = 0; i < _size; i++) {
+				_objs.add(new Num(_doubles[i]));
+			}
+			_doubles = null;
+			_objs.add(o);
+		}
+	}
+
+	public void add(double d) {
+		if (_objs != null) {
+			_objs.add(new Num(d));
+		} else {
+			if (_size == _doubles.length) {
+				_doubles = Arrays.copyOf(_doubles, _size * 2);
+			}
+			_doubles[_size++] = d;
+		}
+	}
+
+	public void addAll(Iterable<Obj> items) {
+		for (Obj o : items) add(o);
+	}
+
+	public int size() {
+		return _objs == null ? _size : _objs.size();
+	}
+
+	public List toList() {
+		if (_objs != null) {
+			return new List(_objs);
+		} else if (_size == 0) {
+			return new List();
+		} else {
+			return new List(new DoubleList(Arrays.copyOf(_doubles, _size)));
+		}
+	}
+}
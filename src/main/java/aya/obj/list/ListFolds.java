@@ -0,0 +1,170 @@
+package aya.obj.list;
+
+import java.util.ArrayList;
+import java.util.Stack;
+
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.Instruction;
+import aya.instruction.op.OpInstruction;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.block.CompiledCallable;
+import aya.obj.list.numberlist.DoubleList;
+import aya.obj.number.Num;
+import aya.util.ElementwiseBlock;
+
+/**
+ * Left fold, right fold, fold with an initial value and prefix scan over
+ * any list. If the list is a list of doubles and the block is a single
+ * <code>+ * .&lt; .&gt; &amp; |</code> operator, the fold runs directly on
+ * the double[]. Other blocks are called with a {@link CompiledCallable}
+ * (or an {@link ElementwiseBlock} when possible) and their result is the
+ * top of the stack.
+ */
+public class ListFolds {
+
+	private enum NumericOp {
+		ADD, MUL, MAX, MIN, AND, OR;
+
+		double apply(double a, double b) {
+			switch (this) {
+			case ADD: return a + b;
+			case MUL: return a * b;
+			// Same comparison as Num.compareTo, ties keep b
+			case MAX: return Double.compare(a + 0.0, b + 0.0) > 0 ? a : b;
+			case MIN: return Double.compare(a + 0.0, b + 0.0) < 0 ? a : b;
+			case AND: return (double)((int)a & (int)b);
+			case OR:  return (double)((int)a | (int)b);
+			default:  throw new IllegalStateException();
+			}
+		}
+	}
+
+	/** A 2 arg function called by the generic fold path */
+	private interface Fn {
+		Obj apply(Obj a, Obj b);
+	}
+
+	/** If the block is a single supported operator, return it */
+	private static NumericOp numericOp(Block block) {
+		final ArrayList<Instruction> instructions = block.getInstructions().getInstrucionList();
+		if (instructions.size() != 1 || !(instructions.get(0) instanceof OpInstruction)) {
+			return null;
+		}
+		switch (((OpInstruction)instructions.get(0)).name) {
+		case "+":  return NumericOp.ADD;
+		case "*":  return NumericOp.MUL;
+		case ".<": return NumericOp.MAX; // greater of
+		case ".>": return NumericOp.MIN; // lesser of
+		case "&":  return NumericOp.AND;
+		case "|":  return NumericOp.OR;
+		default:   return null;
+		}
+	}
+
+	/** Return the items of the list as a double[] if it is a list of doubles */
+	private static double[] doubles(List list) {
+		return list.isa(Obj.DOUBLELIST) ? list.toNumberList().todoubleArray() : null;
+	}
+
+	private static Fn fn(List list, Block block) {
+		final ElementwiseBlock eb = list.isa(Obj.NUMBERLIST) ? ElementwiseBlock.compile(block, 2) : null;
+		if (eb != null) {
+			return (a, b) -> eb.apply(a, b);
+		} else {
+			final CompiledCallable cc = new CompiledCallable(block);
+			return (a, b) -> {
+				final Stack<Obj> out = cc.invoke(a, b);
+				if (out.isEmpty()) {
+					throw new ValueError("fold: block must leave a value on the stack. Block: " + block.repr());
+				}
+				return out.peek();
+			};
+		}
+	}
+
+	/** True if the block can be folded over the list without the interpreter */
+	public static boolean hasFastPath(List list, Block block) {
+		return numericOp(block) != null && list.isa(Obj.DOUBLELIST);
+	}
+
+	private static void nonEmpty(List list, String name) {
+		if (list.length() == 0) {
+			throw new ValueError(name + ": list must not be empty");
+		}
+	}
+
+	/** [a b c] => (a f b) f c */
+	public static Obj foldl(List list, Block block) {
+		nonEmpty(list, "fold");
+		final NumericOp op = numericOp(block);
+		final double[] xs = op == null ? null : doubles(list);
+		if (xs != null) {
+			double acc = xs[0];
+			for (int i = 1; i < xs.length; i++) acc = op.apply(acc, xs[i]);
+			return new Num(acc);
+		} else {
+			final Fn f = fn(list, block);
+			Obj acc = list.getExact(0);
+			for (int i = 1; i < list.length(); i++) acc = f.apply(acc, list.getExact(i));
+			return acc;
+		}
+	}
+
+	/** [a b c] => ((init f a) f b) f c */
+	public static Obj foldl(List list, Obj init, Block block) {
+		final NumericOp op = numericOp(block);
+		final double[] xs = op == null || !(init instanceof Num) ? null : doubles(list);
+		if (xs != null) {
+			double acc = ((Num)init).toDouble();
+			for (double x : xs) acc = op.apply(acc, x);
+			return new Num(acc);
+		} else {
+			final Fn f = fn(list, block);
+			Obj acc = init;
+			for (int i = 0; i < list.length(); i++) acc = f.apply(acc, list.getExact(i));
+			return acc;
+		}
+	}
+
+	/** [a b c] => a f (b f c) */
+	public static Obj foldr(List list, Block block) {
+		nonEmpty(list, "foldr");
+		final NumericOp op = numericOp(block);
+		final double[] xs = op == null ? null : doubles(list);
+		if (xs != null) {
+			double acc = xs[xs.length - 1];
+			for (int i = xs.length - 2; i >= 0; i--) acc = op.apply(xs[i], acc);
+			return new Num(acc);
+		} else {
+			final Fn f = fn(list, block);
+			Obj acc = list.getExact(list.length() - 1);
+			for (int i = list.length() - 2; i >= 0; i--) acc = f.apply(list.getExact(i), acc);
+			return acc;
+		}
+	}
+
+	/** [a b c] => [a (a f b) ((a f b) f c)] */
+	public static List scan(List list, Block block) {
+		final NumericOp op = numericOp(block);
+		final double[] xs = op == null ? null : doubles(list);
+		if (xs != null && xs.length > 0) {
+			final double[] out = new double[xs.length];
+			out[0] = xs[0];
+			for (int i = 1; i < xs.length; i++) out[i] = op.apply(out[i-1], xs[i]);
+			return new List(new DoubleList(out));
+		} else {
+			final ListAccumulator out = new ListAccumulator();
+			if (list.length() > 0) {
+				final Fn f = fn(list, block);
+				Obj acc = list.getExact(0);
+				out.add(acc);
+				for (int i = 1; i < list.length(); i++) {
+					acc = f.apply(acc, list.getExact(i));
+					out.add(acc);
+				}
+			}
+			return out.toList();
+		}
+	}
+}
@@ -68,6 +68,33 @@ public class ListRangeUtils {
 	}
 	
 	
+	/**
+	 * If buildRange(args) would create a DoubleList range, return its
+	 * {lo, hi, inc} without creating it. Otherwise return null
+	 */
+	public static double[] doubleRangeBounds(List args) {
+		for (int i = 0; i < args.length(); i++) {
+			if (!args.getExact(i).isa(Obj.NUM)) return null;
+		}
+		switch (args.length()) {
+		case 1:
+			final double n = ((Number)args.getExact(0)).toDouble();
+			return n < 0 ? new double[] {n, -1, 1} : new double[] {1, n, 1};
+		case 2:
+			final double lo = ((Number)args.getExact(0)).toDouble();
+			final double hi = ((Number)args.getExact(1)).toDouble();
+			return new double[] {lo, hi, lo > hi ? -1 : 1};
+		case 3:
+			final double x = ((Number)args.getExact(0)).toDouble();
+			final double y = ((Number)args.getExact(1)).toDouble();
+			final double z = ((Number)args.getExact(2)).toDouble();
+			return new double[] {x, z, y - x};
+		default:
+			return null;
+		}
+	}
+	
+	
 	public static ListImpl buildRange(List args) {
 		
 		switch(args.length()) {
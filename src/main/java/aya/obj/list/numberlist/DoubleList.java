@@ -16,12 +16,16 @@ import aya.obj.number.Num;
 import aya.obj.number.Number;
 import aya.util.Casting;
 import aya.util.MathUtils;
+import aya.util.Primes;
 
 /** List containing a list of Number objects */
 public class DoubleList extends NumberList {
 	
 	double[] _list;
 	
+	/** True if _list may be shared with a LazyDoubleList. Copy before mutating in place */
+	boolean _aliased = false;
+	
 	public DoubleList(double[] list) {
 		_list = list;
 	}
@@ -37,17 +41,13 @@ public class DoubleList extends NumberList {
 	}
 	
 	public DoubleList(double lo, double hi, double inc) {
-		//Calculate the number of items, this will return a negative value if array creation is impossible
-		int numOfItems = (int)Math.floor((hi - lo) / inc) + 1;
+		final long numOfItems = rangeLength(lo, hi, inc);
 	
 		if(numOfItems > 10000000) {
 			throw new ValueError("Cannot create range with more than 10^7 elements"); 
-		} else if (numOfItems < 0) {
-			throw new ValueError("Cannot create range containing a negative number of elements in"
-					+ " ["+ (new Num(lo)).repr() +" "+ (new Num(lo+inc)).repr() +" "+ (new Num(hi)).repr() +"]" );
 		}
 		
-		_list = new double[numOfItems];
+		_list = new double[(int)numOfItems];
 		
 		//Increment up or down?
 		if ( (lo > hi && inc > 0) || ((lo < hi) && inc < 0) ) {
@@ -62,6 +62,21 @@ public class DoubleList extends NumberList {
 	}
 	
 	
+	/**
+	 * The number of items in the range [lo, lo+inc, ..., hi]. The items
+	 * are lo, lo+inc, lo+inc+inc, ... (accumulated, not lo+i*inc)
+	 */
+	public static long rangeLength(double lo, double hi, double inc) {
+		//Calculate the number of items, this will return a negative value if array creation is impossible
+		final long numOfItems = (long)Math.floor((hi - lo) / inc) + 1;
+		if (numOfItems < 0) {
+			throw new ValueError("Cannot create range containing a negative number of elements in"
+					+ " ["+ (new Num(lo)).repr() +" "+ (new Num(lo+inc)).repr() +" "+ (new Num(hi)).repr() +"]" );
+		}
+		return numOfItems;
+	}
+	
+	
 	//////////////
 	// Creation //
 	//////////////
@@ -79,6 +94,36 @@ public class DoubleList extends NumberList {
 		System.arraycopy(elements, 0, list, 0, elements.length);
 		return new DoubleList(list);
 	}
+	
+	/** Return the list as a DoubleList (forcing deferred lists), or null if it is not a DoubleList */
+	public static DoubleList asDoubleList(ListImpl list) {
+		if (list instanceof DoubleList) {
+			return (DoubleList)list;
+		} else if (list instanceof LazyDoubleList) {
+			return ((LazyDoubleList)list).force();
+		} else {
+			return null;
+		}
+	}
+	
+	/** Apply an element-wise operation, deferring it if the list is large enough */
+	NumberList elementwise(int op, double operand) {
+		if (_list.length >= LazyDoubleList.MIN_DEFER_LENGTH) {
+			return LazyDoubleList.defer(this, op, operand);
+		} else {
+			double[] out = Arrays.copyOf(_list, _list.length);
+			LazyDoubleList.apply(op, operand, out, 0, out.length);
+			return new DoubleList(out);
+		}
+	}
+	
+	/** Take ownership of _list before modifying it in place */
+	private void unalias() {
+		if (_aliased) {
+			_list = Arrays.copyOf(_list, _list.length);
+			_aliased = false;
+		}
+	}
 
 	//////////////////////////
 	// NUMBERLIST OVERRIDES //
@@ -160,10 +205,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList add(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] + N;
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.ADD, n.toDouble());
 		} else {
 			return toNumberItemList().add(n);
 		}
@@ -172,10 +214,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList sub(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] - N;
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.SUB, n.toDouble());
 		} else {
 			return toNumberItemList().sub(n);
 		}
@@ -184,10 +223,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList div(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] / N;
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.DIV, n.toDouble());
 		} else {
 			return toNumberItemList().div(n);
 		}
@@ -196,10 +232,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList mul(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] * N;
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.MUL, n.toDouble());
 		} else {
 			return toNumberItemList().mul(n);
 		}
@@ -208,10 +241,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList mod(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = _list[i] % N;
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.MOD, n.toDouble());
 		} else {
 			return toNumberItemList().mod(n);
 		}
@@ -220,10 +250,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList idiv(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.floor(_list[i] / N);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.IDIV, n.toDouble());
 		} else {
 			return toNumberItemList().idiv(n);
 		}
@@ -232,10 +259,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList pow(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.pow(_list[i], N);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.POW, n.toDouble());
 		} else {
 			return toNumberItemList().pow(n);
 		}
@@ -244,10 +268,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList subFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N - _list[i];
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.SUB_FROM, n.toDouble());
 		} else {
 			return toNumberItemList().subFrom(n);
 		}
@@ -256,10 +277,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList divFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N / _list[i];
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.DIV_FROM, n.toDouble());
 		} else {
 			return toNumberItemList().divFrom(n);
 		}
@@ -268,10 +286,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList modFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = N % _list[i];
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.MOD_FROM, n.toDouble());
 		} else {
 			return toNumberItemList().modFrom(n);
 		}
@@ -280,10 +295,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList idivFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.floor(N / _list[i]);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.IDIV_FROM, n.toDouble());
 		} else {
 			return toNumberItemList().idivFrom(n);
 		}
@@ -292,10 +304,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList powFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			double N = n.toDouble();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = Math.pow(N, _list[i]);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.POW_FROM, n.toDouble());
 		} else {
 			return toNumberItemList().powFrom(n);
 		}
@@ -304,10 +313,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList band(Number n) {
 		if (n.isa(Obj.NUM)) {
-			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] & N);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.BAND, n.toInt());
 		} else {
 			return toNumberItemList().band(n).promote();
 		}
@@ -316,10 +322,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList bandFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)(N & (int)_list[i]);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.BAND, n.toInt());
 		} else {
 			return toNumberItemList().bandFrom(n).promote();
 		}
@@ -328,10 +331,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList bor(Number n) {
 		if (n.isa(Obj.NUM)) {
-			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)((int)_list[i] | N);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.BOR, n.toInt());
 		} else {
 			return toNumberItemList().bor(n).promote();
 		}
@@ -340,10 +340,7 @@ public class DoubleList extends NumberList {
 	@Override
 	public NumberList borFrom(Number n) {
 		if (n.isa(Obj.NUM)) {
-			int N = n.toInt();
-			double[] out = new double[_list.length];
-			for (int i = 0; i < _list.length; i++) out[i] = (double)(N | (int)_list[i]);
-			return new DoubleList(out);
+			return elementwise(LazyDoubleList.BOR, n.toInt());
 		} else {
 			return toNumberItemList().borFrom(n).promote();
 		}
@@ -354,121 +351,87 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList negate() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = _list[i] * -1;
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.NEGATE, 0);
 	}
 
 	@Override
 	public NumberList bnot() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = ~((int)_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.BNOT, 0);
 	}
 
 	@Override
 	public NumberList signnum() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = MathUtils.signnum(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.SIGNNUM, 0);
 	}
 
 	@Override
 	public NumberList factorial() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = MathUtils.factorial((long)_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.FACTORIAL, 0);
 	}
 
 	@Override
 	public NumberList abs() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.abs(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.ABS, 0);
 	}
 	
 	@Override
 	public NumberList exp() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.exp(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.EXP, 0);
 	}
 
 	@Override
 	public NumberList sin() {	
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.sin(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.SIN, 0);
 	}
 
 	@Override
 	public NumberList cos() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.cos(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.COS, 0);
 	}
 
 	@Override
 	public NumberList tan() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.tan(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.TAN, 0);
 	}
 
 	@Override
 	public NumberList asin() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.asin(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.ASIN, 0);
 	}
 
 	@Override
 	public NumberList acos() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.acos(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.ACOS, 0);
 	}
 
 	@Override
 	public NumberList atan() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.atan(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.ATAN, 0);
 	}
 
 	@Override
 	public NumberList log() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.log10(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.LOG, 0);
 	}
 
 	@Override
 	public NumberList ln() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.log(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.LN, 0);
 	}
 
 	@Override
 	public NumberList sqrt() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.sqrt(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.SQRT, 0);
 	}
 
 	@Override
 	public NumberList ceil() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.ceil(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.CEIL, 0);
 	}
 
 	@Override
 	public NumberList floor() {
-		double[] out = new double[_list.length];
-		for (int i = 0; i < _list.length; i++) out[i] = Math.floor(_list[i]);
-		return new DoubleList(out);
+		return elementwise(LazyDoubleList.FLOOR, 0);
 	}
 
 	@Override
@@ -530,6 +493,7 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public void reverse() {
+		unalias();
 		final int len = _list.length;
 
         if(len <= 1){
@@ -635,12 +599,15 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public void sort() {
+		unalias();
 		Arrays.sort(_list);
 	}
 	
 	@Override
 	public void set(int i, Obj o) {
-		_list[i] = ((Num)o).toDouble();
+		final double d = ((Num)o).toDouble();
+		unalias();
+		_list[i] = d;
 	}
 	
 	@Override
@@ -685,7 +652,9 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public void addAll(ListImpl l) {
-		double[] other = ((DoubleList)l)._list;
+		DoubleList other_list = asDoubleList(l);
+		if (other_list == null) throw new ClassCastException();
+		double[] other = other_list._list;
 		final int len = _list.length;
 		final int o_len = other.length;
 
@@ -791,31 +760,7 @@ public class DoubleList extends NumberList {
 	
 	/** Primes up to n **/
 	public static DoubleList primes(int n) {
-		boolean[] flags = new boolean[n];
-		Arrays.fill(flags, true);
-		
-		//Mark every space that is not prime
-		for (int i = 2; i <= n; i++) {
-			int z = 2*i;
-			while (z <= n) {
-				flags[z-1] = false; //zero index, so sub 1
-				z += i;
-			}
-		}
-		
-		//Allocate new array
-		ArrayList<Number> primeList = new ArrayList<Number>();
-		
-		//Add primes into array
-		for (int i = 2; i <= n; i++) {
-			if (flags[i-1]) {
-				primeList.add(Num.fromInt(i));
-			}
-		}
-
-		double[] out = new double[primeList.size()];
-		for (int i = 0; i < out.length; i++) out[i] = primeList.get(i).toDouble();
-		return new DoubleList(out);
+		return new DoubleList(Primes.upTo(n));
 	}
 
 
@@ -831,8 +776,8 @@ public class DoubleList extends NumberList {
 	public NumberList add(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = _list[i] + NS._list[i];
 			return new DoubleList(out);
@@ -845,8 +790,8 @@ public class DoubleList extends NumberList {
 	public NumberList sub(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = _list[i] - NS._list[i];
 			return new DoubleList(out);
@@ -859,8 +804,8 @@ public class DoubleList extends NumberList {
 	public NumberList subFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = NS._list[i] - _list[i];
 			return new DoubleList(out);
@@ -874,8 +819,8 @@ public class DoubleList extends NumberList {
 	public NumberList div(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = _list[i] / NS._list[i];
 			return new DoubleList(out);
@@ -888,8 +833,8 @@ public class DoubleList extends NumberList {
 	public NumberList divFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = NS._list[i] / _list[i];
 			return new DoubleList(out);
@@ -902,8 +847,8 @@ public class DoubleList extends NumberList {
 	public NumberList mul(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = _list[i] * NS._list[i];
 			return new DoubleList(out);
@@ -916,8 +861,8 @@ public class DoubleList extends NumberList {
 	public NumberList mod(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = _list[i] % NS._list[i];
 			return new DoubleList(out);
@@ -930,8 +875,8 @@ public class DoubleList extends NumberList {
 	public NumberList modFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = NS._list[i] % _list[i];
 			return new DoubleList(out);
@@ -944,8 +889,8 @@ public class DoubleList extends NumberList {
 	public NumberList idiv(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = Math.floor(_list[i] / NS._list[i]);
 			return new DoubleList(out);
@@ -958,8 +903,8 @@ public class DoubleList extends NumberList {
 	public NumberList idivFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = Math.floor(NS._list[i] / _list[i]);
 			return new DoubleList(out);
@@ -972,8 +917,8 @@ public class DoubleList extends NumberList {
 	public NumberList pow(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = Math.pow(_list[i], NS._list[i]);
 			return new DoubleList(out);
@@ -986,8 +931,8 @@ public class DoubleList extends NumberList {
 	public NumberList powFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = Math.pow(NS._list[i], _list[i]);
 			return new DoubleList(out);
@@ -1000,8 +945,8 @@ public class DoubleList extends NumberList {
 	public NumberList band(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) & ((int)NS._list[i]);
 			return new DoubleList(out);
@@ -1014,8 +959,8 @@ public class DoubleList extends NumberList {
 	public NumberList bandFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = ((int)NS._list[i]) & ((int)_list[i]);
 			return new DoubleList(out);
@@ -1028,8 +973,8 @@ public class DoubleList extends NumberList {
 	public NumberList bor(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = ((int)_list[i]) | ((int)NS._list[i]);
 			return new DoubleList(out);
@@ -1042,8 +987,8 @@ public class DoubleList extends NumberList {
 	public NumberList borFrom(NumberList ns) {
 		boundsCheck(this, ns);
 		final int len = _list.length;
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = ((int)NS._list[i]) | ((int)_list[i]);
 			return new DoubleList(out);
@@ -1056,15 +1001,14 @@ public class DoubleList extends NumberList {
 	
 	@Override
 	public NumberList lt(Number n) {
-		final int len = _list.length;
-		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
-			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] < N ? 1 : 0;
+			return elementwise(LazyDoubleList.LT, n.toDouble());
 		} else {
+			final int len = _list.length;
+			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) < 0 ? 1 : 0;
+			return new DoubleList(out);
 		}
-		return new DoubleList(out);
 	}
 
 	@Override
@@ -1072,8 +1016,8 @@ public class DoubleList extends NumberList {
 		boundsCheck(this, ns);
 		int len = _list.length;
 		double[] out = new double[len];
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			for (int i = 0; i < len; i++) out[i] = _list[i] < NS._list[i] ? 1 : 0;
 		} else  {
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) < 0 ? 1 : 0;
@@ -1083,15 +1027,14 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList leq(Number n) {
-		final int len = _list.length;
-		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
-			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] <= N ? 1 : 0;
+			return elementwise(LazyDoubleList.LEQ, n.toDouble());
 		} else {
+			final int len = _list.length;
+			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) <= 0 ? 1 : 0;
+			return new DoubleList(out);
 		}
-		return new DoubleList(out);
 	}
 
 	@Override
@@ -1099,8 +1042,8 @@ public class DoubleList extends NumberList {
 		boundsCheck(this, ns);
 		int len = _list.length;
 		double[] out = new double[len];
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			for (int i = 0; i < len; i++) out[i] = _list[i] <= NS._list[i] ? 1 : 0;
 		} else  {
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) <= 0 ? 1 : 0;
@@ -1110,15 +1053,14 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList gt(Number n) {
-		final int len = _list.length;
-		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
-			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] > N ? 1 : 0;
+			return elementwise(LazyDoubleList.GT, n.toDouble());
 		} else {
+			final int len = _list.length;
+			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) > 0 ? 1 : 0;
+			return new DoubleList(out);
 		}
-		return new DoubleList(out);
 	}
 
 	@Override
@@ -1126,8 +1068,8 @@ public class DoubleList extends NumberList {
 		boundsCheck(this, ns);
 		int len = _list.length;
 		double[] out = new double[len];
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			for (int i = 0; i < len; i++) out[i] = _list[i] > NS._list[i] ? 1 : 0;
 		} else  {
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) > 0 ? 1 : 0;
@@ -1137,15 +1079,14 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList geq(Number n) {
-		final int len = _list.length;
-		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
-			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] >= N ? 1 : 0;
+			return elementwise(LazyDoubleList.GEQ, n.toDouble());
 		} else {
+			final int len = _list.length;
+			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) >= 0 ? 1 : 0;
+			return new DoubleList(out);
 		}
-		return new DoubleList(out);
 	}
 
 	@Override
@@ -1153,8 +1094,8 @@ public class DoubleList extends NumberList {
 		boundsCheck(this, ns);
 		int len = _list.length;
 		double[] out = new double[len];
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			for (int i = 0; i < len; i++) out[i] = _list[i] >= NS._list[i] ? 1 : 0;
 		} else  {
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) >= 0 ? 1 : 0;
@@ -1164,15 +1105,14 @@ public class DoubleList extends NumberList {
 
 	@Override
 	public NumberList eq(Number n) {
-		final int len = _list.length;
-		double[] out = new double[len];
 		if (n.isa(Obj.NUM)) {
-			final double N = n.toDouble();
-			for (int i = 0; i < len; i++) out[i] = _list[i] == N ? 1 : 0;
+			return elementwise(LazyDoubleList.EQ, n.toDouble());
 		} else {
+			final int len = _list.length;
+			double[] out = new double[len];
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(n) == 0 ? 1 : 0;
+			return new DoubleList(out);
 		}
-		return new DoubleList(out);
 	}
 
 	@Override
@@ -1180,8 +1120,8 @@ public class DoubleList extends NumberList {
 		boundsCheck(this, ns);
 		int len = _list.length;
 		double[] out = new double[len];
-		if (ns instanceof DoubleList) {
-			final DoubleList NS = (DoubleList)ns;
+		final DoubleList NS = asDoubleList(ns);
+		if (NS != null) {
 			for (int i = 0; i < len; i++) out[i] = _list[i] == NS._list[i] ? 1 : 0;
 		} else  {
 			for (int i = 0; i < len; i++) out[i] = new Num(_list[i]).compareTo(ns.get(i)) == 0 ? 1 : 0;
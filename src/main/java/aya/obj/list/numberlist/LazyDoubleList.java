@@ -0,0 +1,573 @@
+package aya.obj.list.numberlist;
+
+import java.util.ArrayList;
+
+import aya.ReprStream;
+import aya.obj.Obj;
+import aya.obj.list.List;
+import aya.obj.list.ListImpl;
+import aya.obj.number.Num;
+import aya.obj.number.Number;
+import aya.util.MathUtils;
+
+/**
+ * A deferred chain of element-wise operations over a DoubleList source.
+ *
+ * Scalar and unary vectorized operations on a DoubleList record the
+ * operation here instead of allocating an intermediate double[]. The chain
+ * is evaluated in a single blocked pass the first time the values are
+ * needed (indexing, printing, mutation, non-element-wise operations).
+ * Reductions (sum, min, max, mean) stream over the chain without
+ * materializing it.
+ *
+ * Unforced nodes are immutable: appending an operation returns a new node
+ * and the source array is never written to. DoubleList copies its array
+ * before mutating it in place if it has been captured by a node.
+ */
+public class LazyDoubleList extends NumberList {
+
+	/** Lists shorter than this are evaluated eagerly */
+	public static final int MIN_DEFER_LENGTH = 64;
+
+	/** Maximum number of operations in a chain before it is forced */
+	public static final int MAX_CHAIN_LENGTH = 16;
+
+	/** Number of elements evaluated per block when forcing the chain */
+	private static final int BLOCK_SIZE = 1024;
+
+	// Operation codes (operand is the scalar, x is the list element)
+	public static final int ADD = 0;       // x + n
+	public static final int SUB = 1;       // x - n
+	public static final int SUB_FROM = 2;  // n - x
+	public static final int MUL = 3;       // x * n
+	public static final int DIV = 4;       // x / n
+	public static final int DIV_FROM = 5;  // n / x
+	public static final int MOD = 6;       // x % n
+	public static final int MOD_FROM = 7;  // n % x
+	public static final int IDIV = 8;      // floor(x / n)
+	public static final int IDIV_FROM = 9; // floor(n / x)
+	public static final int POW = 10;      // x ^ n
+	public static final int POW_FROM = 11; // n ^ x
+	public static final int BAND = 12;     // x & n
+	public static final int BOR = 13;      // x | n
+	public static final int LT = 14;       // x < n
+	public static final int LEQ = 15;      // x <= n
+	public static final int GT = 16;       // x > n
+	public static final int GEQ = 17;      // x >= n
+	public static final int EQ = 18;       // x == n
+	public static final int NEGATE = 19;
+	public static final int BNOT = 20;
+	public static final int SIGNNUM = 21;
+	public static final int FACTORIAL = 22;
+	public static final int ABS = 23;
+	public static final int EXP = 24;
+	public static final int SIN = 25;
+	public static final int COS = 26;
+	public static final int TAN = 27;
+	public static final int ASIN = 28;
+	public static final int ACOS = 29;
+	public static final int ATAN = 30;
+	public static final int LOG = 31;
+	public static final int LN = 32;
+	public static final int SQRT = 33;
+	public static final int CEIL = 34;
+	public static final int FLOOR = 35;
+
+	private final double[] _src;
+	private final int[] _ops;
+	private final double[] _operands;
+	private volatile DoubleList _forced;
+
+	private LazyDoubleList(double[] src, int[] ops, double[] operands) {
+		_src = src;
+		_ops = ops;
+		_operands = operands;
+		_forced = null;
+	}
+
+	/** Defer a single operation over the values of the list */
+	static LazyDoubleList defer(DoubleList list, int op, double operand) {
+		list._aliased = true;
+		return new LazyDoubleList(list._list, new int[] {op}, new double[] {operand});
+	}
+
+	/** Return a new node with the operation appended to the chain */
+	private NumberList then(int op, double operand) {
+		DoubleList forced = _forced;
+		if (forced != null) {
+			return forced.elementwise(op, operand);
+		} else if (_ops.length >= MAX_CHAIN_LENGTH) {
+			return force().elementwise(op, operand);
+		} else {
+			final int len = _ops.length;
+			int[] ops = new int[len + 1];
+			double[] operands = new double[len + 1];
+			System.arraycopy(_ops, 0, ops, 0, len);
+			System.arraycopy(_operands, 0, operands, 0, len);
+			ops[len] = op;
+			operands[len] = operand;
+			return new LazyDoubleList(_src, ops, operands);
+		}
+	}
+
+	/** Evaluate the chain (if needed) and return the result */
+	public DoubleList force() {
+		DoubleList forced = _forced;
+		if (forced == null) {
+			double[] out = new double[_src.length];
+			for (int start = 0; start < out.length; start += BLOCK_SIZE) {
+				evalBlock(start, Math.min(start + BLOCK_SIZE, out.length), out, start);
+			}
+			forced = new DoubleList(out);
+			_forced = forced;
+		}
+		return forced;
+	}
+
+	/** Return true if the chain has already been evaluated */
+	public boolean isForced() {
+		return _forced != null;
+	}
+
+	/** Return the number of deferred operations in the chain */
+	public int chainLength() {
+		return _ops.length;
+	}
+
+	/** Evaluate the items [start, end) of the chain into buf starting at offset */
+	private void evalBlock(int start, int end, double[] buf, int offset) {
+		final int count = end - start;
+		System.arraycopy(_src, start, buf, offset, count);
+		for (int k = 0; k < _ops.length; k++) {
+			apply(_ops[k], _operands[k], buf, offset, offset + count);
+		}
+	}
+
+	/** Apply op to buf[from, to) in place */
+	static void apply(int op, double n, double[] buf, int from, int to) {
+		switch (op) {
+		case ADD:       for (int i = from; i < to; i++) buf[i] = buf[i] + n; break;
+		case SUB:       for (int i = from; i < to; i++) buf[i] = buf[i] - n; break;
+		case SUB_FROM:  for (int i = from; i < to; i++) buf[i] = n - buf[i]; break;
+		case MUL:       for (int i = from; i < to; i++) buf[i] = buf[i] * n; break;
+		case DIV:       for (int i = from; i < to; i++) buf[i] = buf[i] / n; break;
+		case DIV_FROM:  for (int i = from; i < to; i++) buf[i] = n / buf[i]; break;
+		case MOD:       for (int i = from; i < to; i++) buf[i] = buf[i] % n; break;
+		case MOD_FROM:  for (int i = from; i < to; i++) buf[i] = n % buf[i]; break;
+		case IDIV:      for (int i = from; i < to; i++) buf[i] = Math.floor(buf[i] / n); break;
+		case IDIV_FROM: for (int i = from; i < to; i++) buf[i] = Math.floor(n / buf[i]); break;
+		case POW:       for (int i = from; i < to; i++) buf[i] = Math.pow(buf[i], n); break;
+		case POW_FROM:  for (int i = from; i < to; i++) buf[i] = Math.pow(n, buf[i]); break;
+		case BAND: {
+			final int N = (int)n;
+			for (int i = from; i < to; i++) buf[i] = (double)((int)buf[i] & N);
+			break;
+		}
+		case BOR: {
+			final int N = (int)n;
+			for (int i = from; i < to; i++) buf[i] = (double)((int)buf[i] | N);
+			break;
+		}
+		case LT:        for (int i = from; i < to; i++) buf[i] = buf[i] < n ? 1 : 0; break;
+		case LEQ:       for (int i = from; i < to; i++) buf[i] = buf[i] <= n ? 1 : 0; break;
+		case GT:        for (int i = from; i < to; i++) buf[i] = buf[i] > n ? 1 : 0; break;
+		case GEQ:       for (int i = from; i < to; i++) buf[i] = buf[i] >= n ? 1 : 0; break;
+		case EQ:        for (int i = from; i < to; i++) buf[i] = buf[i] == n ? 1 : 0; break;
+		case NEGATE:    for (int i = from; i < to; i++) buf[i] = buf[i] * -1; break;
+		case BNOT:      for (int i = from; i < to; i++) buf[i] = ~((int)buf[i]); break;
+		case SIGNNUM:   for (int i = from; i < to; i++) buf[i] = MathUtils.signnum(buf[i]); break;
+		case FACTORIAL: for (int i = from; i < to; i++) buf[i] = MathUtils.factorial((long)buf[i]); break;
+		case ABS:       for (int i = from; i < to; i++) buf[i] = Math.abs(buf[i]); break;
+		case EXP:       for (int i = from; i < to; i++) buf[i] = Math.exp(buf[i]); break;
+		case SIN:       for (int i = from; i < to; i++) buf[i] = Math.sin(buf[i]); break;
+		case COS:       for (int i = from; i < to; i++) buf[i] = Math.cos(buf[i]); break;
+		case TAN:       for (int i = from; i < to; i++) buf[i] = Math.tan(buf[i]); break;
+		case ASIN:      for (int i = from; i < to; i++) buf[i] = Math.asin(buf[i]); break;
+		case ACOS:      for (int i = from; i < to; i++) buf[i] = Math.acos(buf[i]); break;
+		case ATAN:      for (int i = from; i < to; i++) buf[i] = Math.atan(buf[i]); break;
+		case LOG:       for (int i = from; i < to; i++) buf[i] = Math.log10(buf[i]); break;
+		case LN:        for (int i = from; i < to; i++) buf[i] = Math.log(buf[i]); break;
+		case SQRT:      for (int i = from; i < to; i++) buf[i] = Math.sqrt(buf[i]); break;
+		case CEIL:      for (int i = from; i < to; i++) buf[i] = Math.ceil(buf[i]); break;
+		case FLOOR:     for (int i = from; i < to; i++) buf[i] = Math.floor(buf[i]); break;
+		default:
+			throw new IllegalArgumentException("LazyDoubleList: unknown op " + op);
+		}
+	}
+
+
+	////////////////
+	// REDUCTIONS //
+	////////////////
+
+	/** Reduction kernels stream over the chain one block at a time */
+	private interface BlockReducer {
+		void reduce(double[] buf, int count);
+	}
+
+	private void reduceBlocks(BlockReducer r) {
+		double[] buf = new double[Math.min(BLOCK_SIZE, _src.length)];
+		for (int start = 0; start < _src.length; start += BLOCK_SIZE) {
+			final int end = Math.min(start + BLOCK_SIZE, _src.length);
+			evalBlock(start, end, buf, 0);
+			r.reduce(buf, end - start);
+		}
+	}
+
+	@Override
+	public Number max() {
+		if (_forced != null) return _forced.max();
+		final double[] max = {Num.MIN_VALUE.toDouble()};
+		reduceBlocks((buf, count) -> {
+			for (int i = 0; i < count; i++) {
+				if (!Double.isNaN(buf[i]) && buf[i] > max[0]) max[0] = buf[i];
+			}
+		});
+		return new Num(max[0]);
+	}
+
+	@Override
+	public Number min() {
+		if (_forced != null) return _forced.min();
+		final double[] min = {Num.MAX_VALUE.toDouble()};
+		reduceBlocks((buf, count) -> {
+			for (int i = 0; i < count; i++) {
+				if (!Double.isNaN(buf[i]) && buf[i] < min[0]) min[0] = buf[i];
+			}
+		});
+		return new Num(min[0]);
+	}
+
+	@Override
+	public Number mean() {
+		return _src.length == 0 ? Num.ZERO : new Num(sum().toDouble() / (double)_src.length);
+	}
+
+	@Override
+	public Number sum() {
+		if (_forced != null) return _forced.sum();
+		final double[] total = {0};
+		reduceBlocks((buf, count) -> {
+			for (int i = 0; i < count; i++) total[0] += buf[i];
+		});
+		return new Num(total[0]);
+	}
+
+
+	/////////////////
+	// CONVERSIONS //
+	/////////////////
+
+	@Override
+	public Integer[] toIntegerArray() {
+		return force().toIntegerArray();
+	}
+
+	@Override
+	public int[] toIntArray() {
+		return force().toIntArray();
+	}
+
+	@Override
+	public double[] todoubleArray() {
+		return force().todoubleArray();
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return force().toByteArray();
+	}
+
+	@Override
+	public ArrayList<Number> toArrayList() {
+		return force().toArrayList();
+	}
+
+
+	///////////////////////////
+	// VECTORIZED OPERATIONS //
+	///////////////////////////
+
+	// Scalar operations are appended to the chain, list-list operations force it
+
+	@Override public NumberList add(Number n) { return n.isa(Obj.NUM) ? then(ADD, n.toDouble()) : force().add(n); }
+	@Override public NumberList add(NumberList ns) { return force().add(ns); }
+	@Override public NumberList sub(Number n) { return n.isa(Obj.NUM) ? then(SUB, n.toDouble()) : force().sub(n); }
+	@Override public NumberList sub(NumberList ns) { return force().sub(ns); }
+	@Override public NumberList subFrom(Number n) { return n.isa(Obj.NUM) ? then(SUB_FROM, n.toDouble()) : force().subFrom(n); }
+	@Override public NumberList subFrom(NumberList ns) { return force().subFrom(ns); }
+	@Override public NumberList div(Number n) { return n.isa(Obj.NUM) ? then(DIV, n.toDouble()) : force().div(n); }
+	@Override public NumberList div(NumberList ns) { return force().div(ns); }
+	@Override public NumberList divFrom(Number n) { return n.isa(Obj.NUM) ? then(DIV_FROM, n.toDouble()) : force().divFrom(n); }
+	@Override public NumberList divFrom(NumberList ns) { return force().divFrom(ns); }
+	@Override public NumberList mul(Number n) { return n.isa(Obj.NUM) ? then(MUL, n.toDouble()) : force().mul(n); }
+	@Override public NumberList mul(NumberList ns) { return force().mul(ns); }
+	@Override public NumberList mod(Number n) { return n.isa(Obj.NUM) ? then(MOD, n.toDouble()) : force().mod(n); }
+	@Override public NumberList mod(NumberList ns) { return force().mod(ns); }
+	@Override public NumberList modFrom(Number n) { return n.isa(Obj.NUM) ? then(MOD_FROM, n.toDouble()) : force().modFrom(n); }
+	@Override public NumberList modFrom(NumberList ns) { return force().modFrom(ns); }
+	@Override public NumberList idiv(Number n) { return n.isa(Obj.NUM) ? then(IDIV, n.toDouble()) : force().idiv(n); }
+	@Override public NumberList idiv(NumberList ns) { return force().idiv(ns); }
+	@Override public NumberList idivFrom(Number n) { return n.isa(Obj.NUM) ? then(IDIV_FROM, n.toDouble()) : force().idivFrom(n); }
+	@Override public NumberList idivFrom(NumberList ns) { return force().idivFrom(ns); }
+	@Override public NumberList pow(Number n) { return n.isa(Obj.NUM) ? then(POW, n.toDouble()) : force().pow(n); }
+	@Override public NumberList pow(NumberList ns) { return force().pow(ns); }
+	@Override public NumberList powFrom(Number n) { return n.isa(Obj.NUM) ? then(POW_FROM, n.toDouble()) : force().powFrom(n); }
+	@Override public NumberList powFrom(NumberList ns) { return force().powFrom(ns); }
+	@Override public NumberList band(Number n) { return n.isa(Obj.NUM) ? then(BAND, n.toDouble()) : force().band(n); }
+	@Override public NumberList band(NumberList ns) { return force().band(ns); }
+	@Override public NumberList bandFrom(Number n) { return n.isa(Obj.NUM) ? then(BAND, n.toDouble()) : force().bandFrom(n); }
+	@Override public NumberList bandFrom(NumberList ns) { return force().bandFrom(ns); }
+	@Override public NumberList bor(Number n) { return n.isa(Obj.NUM) ? then(BOR, n.toDouble()) : force().bor(n); }
+	@Override public NumberList bor(NumberList ns) { return force().bor(ns); }
+	@Override public NumberList borFrom(Number n) { return n.isa(Obj.NUM) ? then(BOR, n.toDouble()) : force().borFrom(n); }
+	@Override public NumberList borFrom(NumberList ns) { return force().borFrom(ns); }
+
+	@Override public NumberList negate() { return then(NEGATE, 0); }
+	@Override public NumberList bnot() { return then(BNOT, 0); }
+	@Override public NumberList signnum() { return then(SIGNNUM, 0); }
+	@Override public NumberList factorial() { return then(FACTORIAL, 0); }
+	@Override public NumberList abs() { return then(ABS, 0); }
+	@Override public NumberList exp() { return then(EXP, 0); }
+	@Override public NumberList sin() { return then(SIN, 0); }
+	@Override public NumberList cos() { return then(COS, 0); }
+	@Override public NumberList tan() { return then(TAN, 0); }
+	@Override public NumberList asin() { return then(ASIN, 0); }
+	@Override public NumberList acos() { return then(ACOS, 0); }
+	@Override public NumberList atan() { return then(ATAN, 0); }
+	@Override public NumberList log() { return then(LOG, 0); }
+	@Override public NumberList ln() { return then(LN, 0); }
+	@Override public NumberList sqrt() { return then(SQRT, 0); }
+	@Override public NumberList ceil() { return then(CEIL, 0); }
+	@Override public NumberList floor() { return then(FLOOR, 0); }
+	@Override public NumberList imag() { return force().imag(); }
+
+	// Comparisons against non-Num numbers use Number.compareTo in DoubleList
+	@Override public NumberList lt(Number n) { return n.isa(Obj.NUM) ? then(LT, n.toDouble()) : force().lt(n); }
+	@Override public NumberList lt(NumberList ns) { return force().lt(ns); }
+	@Override public NumberList leq(Number n) { return n.isa(Obj.NUM) ? then(LEQ, n.toDouble()) : force().leq(n); }
+	@Override public NumberList leq(NumberList ns) { return force().leq(ns); }
+	@Override public NumberList gt(Number n) { return n.isa(Obj.NUM) ? then(GT, n.toDouble()) : force().gt(n); }
+	@Override public NumberList gt(NumberList ns) { return force().gt(ns); }
+	@Override public NumberList geq(Number n) { return n.isa(Obj.NUM) ? then(GEQ, n.toDouble()) : force().geq(n); }
+	@Override public NumberList geq(NumberList ns) { return force().geq(ns); }
+	@Override public NumberList eq(Number n) { return n.isa(Obj.NUM) ? then(EQ, n.toDouble()) : force().eq(n); }
+	@Override public NumberList eq(NumberList ns) { return force().eq(ns); }
+
+
+	////////////////////
+	// LIST OVERRIDES //
+	////////////////////
+
+	@Override
+	public int length() {
+		return _src.length;
+	}
+
+	@Override
+	public ListImpl copy() {
+		DoubleList forced = _forced;
+		return forced == null ? new LazyDoubleList(_src, _ops, _operands) : forced.copy();
+	}
+
+	@Override
+	public ListImpl head(int i) {
+		return force().head(i);
+	}
+
+	@Override
+	public ListImpl tail(int i) {
+		return force().tail(i);
+	}
+
+	@Override
+	public Obj head() {
+		return force().head();
+	}
+
+	@Override
+	public Obj tail() {
+		return force().tail();
+	}
+
+	@Override
+	public ListImpl rotate(int n) {
+		return force().rotate(n);
+	}
+
+	@Override
+	public Obj pop() {
+		return force().pop();
+	}
+
+	@Override
+	public Obj popBack() {
+		return force().popBack();
+	}
+
+	@Override
+	public void reverse() {
+		force().reverse();
+	}
+
+	@Override
+	public void sort() {
+		force().sort();
+	}
+
+	@Override
+	public ListImpl slice(int i, int j) {
+		return force().slice(i, j);
+	}
+
+	@Override
+	public Number get(int i) {
+		return force().get(i);
+	}
+
+	@Override
+	public ListImpl get(int[] is) {
+		return force().get(is);
+	}
+
+	@Override
+	public Obj remove(int i) {
+		return force().remove(i);
+	}
+
+	@Override
+	public void removeAll(int[] ixs) {
+		force().removeAll(ixs);
+	}
+
+	@Override
+	public int find(Obj o) {
+		return force().find(o);
+	}
+
+	@Override
+	public ListImpl findAll(Obj o) {
+		return force().findAll(o);
+	}
+
+	@Override
+	public int findBack(Obj o) {
+		return force().findBack(o);
+	}
+
+	@Override
+	public int count(Obj o) {
+		return force().count(o);
+	}
+
+	@Override
+	public ArrayList<Obj> getObjAL() {
+		return force().getObjAL();
+	}
+
+	@Override
+	public ListImpl unique() {
+		return force().unique();
+	}
+
+	@Override
+	public boolean canInsert(Obj o) {
+		return o.isa(Obj.NUM);
+	}
+
+	@Override
+	public ListImpl similarEmpty() {
+		return new DoubleList(new double[0]);
+	}
+
+	@Override
+	public List sameShapeNull() {
+		return new List(new DoubleList(0, length()));
+	}
+
+	@Override
+	public List permutations() {
+		return force().permutations();
+	}
+
+	@Override
+	protected ListImpl flatten() {
+		return force().copy();
+	}
+
+	@Override
+	public List split(Obj o) {
+		return force().split(o);
+	}
+
+	@Override
+	public void set(int i, Obj o) {
+		force().set(i, o);
+	}
+
+	@Override
+	public void addItem(Obj o) {
+		force().addItem(o);
+	}
+
+	@Override
+	public void addItem(int i, Obj o) {
+		force().addItem(i, o);
+	}
+
+	@Override
+	public void addAll(ListImpl l) {
+		force().addAll(l);
+	}
+
+	@Override
+	public NumberList toNumberList() {
+		return this;
+	}
+
+	@Override
+	public NumberList promote() {
+		return this;
+	}
+
+
+	///////////////////
+	// OBJ OVERRIDES //
+	///////////////////
+
+	@Override
+	public byte type() {
+		return Obj.DOUBLELIST;
+	}
+
+	@Override
+	public boolean isa(byte type) {
+		return type == Obj.LIST || type == Obj.NUMBERLIST || type == Obj.DOUBLELIST;
+	}
+
+	@Override
+	public boolean equiv(ListImpl o) {
+		return force().equiv(o);
+	}
+
+	@Override
+	public String str() {
+		return force().str();
+	}
+
+	@Override
+	public ReprStream repr(ReprStream stream) {
+		return force().repr(stream);
+	}
+
+	@Override
+	public boolean bool() {
+		return _src.length != 0;
+	}
+
+	@Override
+	public ListImpl deepcopy() {
+		return copy();
+	}
+
+}
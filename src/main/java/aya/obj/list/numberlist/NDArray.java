@@ -0,0 +1,634 @@
+package aya.obj.list.numberlist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import aya.ReprStream;
+import aya.exceptions.runtime.ValueError;
+import aya.obj.Obj;
+import aya.obj.list.GenericList;
+import aya.obj.list.List;
+import aya.obj.list.ListAlgorithms;
+import aya.obj.list.ListImpl;
+import aya.obj.list.Permutations;
+import aya.obj.number.Number;
+import aya.util.ObjComparator;
+
+/**
+ * Dense N-dimensional (N >= 2) array of doubles. Behaves like a rectangular
+ * list of lists but is backed by a single contiguous double[] and a
+ * shape/strides pair so that transpose, slice, and reshape do not copy.
+ *
+ * The backing data is never modified in place and may be shared between
+ * views. Items returned by get() are values, not references into the array.
+ * Any operation that changes the shape of an item (set, add, ...) throws a
+ * ClassCastException so that the owning List falls back to nested lists.
+ */
+public class NDArray extends ListImpl {
+
+	private double[] _data;
+	private int[] _shape;
+	private int[] _strides;
+	private int _offset;
+
+	/** Create a contiguous array. data.length must equal the product of shape */
+	public NDArray(double[] data, int[] shape) {
+		this(data, shape.clone(), contiguousStrides(shape), 0);
+	}
+
+	private NDArray(double[] data, int[] shape, int[] strides, int offset) {
+		_data = data;
+		_shape = shape;
+		_strides = strides;
+		_offset = offset;
+	}
+
+	/** Wrap the data as a DoubleList if shape is 1d, otherwise as an NDArray */
+	public static ListImpl create(double[] data, int[] shape) {
+		if (shape.length == 1) {
+			return new DoubleList(data);
+		} else {
+			return new NDArray(data, shape);
+		}
+	}
+
+	/** Convert a rectangular nested list of Nums to an NDArray */
+	public static ListImpl fromList(List list) {
+		if (list.isa(Obj.NDARRAY)) {
+			return List.asNDArray(list);
+		}
+
+		ArrayList<Integer> shape_al = new ArrayList<Integer>();
+		Obj cur = list;
+		while (cur.isa(Obj.LIST) && !cur.isa(Obj.STR)) {
+			List l = (List)cur;
+			shape_al.add(l.length());
+			if (l.length() == 0) break;
+			cur = l.getExact(0);
+		}
+
+		if (shape_al.size() == 0) {
+			throw new ValueError("Cannot convert string to ndarray: " + list.repr());
+		}
+
+		int[] shape = new int[shape_al.size()];
+		int size = 1;
+		for (int i = 0; i < shape.length; i++) {
+			shape[i] = shape_al.get(i);
+			size *= shape[i];
+		}
+
+		double[] data = new double[size];
+		if (fill(list, shape, 0, data, 0) != size) {
+			throw new ValueError("Cannot convert list to ndarray, list is not rectangular: " + list.repr());
+		}
+		return create(data, shape);
+	}
+
+	private static int fill(List list, int[] shape, int dim, double[] data, int pos) {
+		if (list.length() != shape[dim]) {
+			throw new ValueError("Cannot convert list to ndarray, list is not rectangular: " + list.repr());
+		}
+		if (dim == shape.length - 1) {
+			if (shape[dim] == 0) return pos;
+			DoubleList ds = list.isa(Obj.DOUBLELIST) ? DoubleList.asDoubleList(list.toNumberList()) : null;
+			if (ds == null) {
+				throw new ValueError("Cannot convert list to ndarray, all items must be real numbers: " + list.repr());
+			}
+			System.arraycopy(ds._list, 0, data, pos, ds._list.length);
+			return pos + ds._list.length;
+		} else {
+			for (int i = 0; i < shape[dim]; i++) {
+				Obj o = list.getExact(i);
+				if (!o.isa(Obj.LIST) || o.isa(Obj.STR)) {
+					throw new ValueError("Cannot convert list to ndarray, list is not rectangular: " + list.repr());
+				}
+				pos = fill((List)o, shape, dim + 1, data, pos);
+			}
+			return pos;
+		}
+	}
+
+	private static int[] contiguousStrides(int[] shape) {
+		int[] strides = new int[shape.length];
+		int stride = 1;
+		for (int i = shape.length - 1; i >= 0; i--) {
+			strides[i] = stride;
+			stride *= shape[i];
+		}
+		return strides;
+	}
+
+
+	///////////////////
+	// ARRAY METHODS //
+	///////////////////
+
+	/** Number of dimensions */
+	public int ndim() {
+		return _shape.length;
+	}
+
+	/** Total number of elements */
+	public int size() {
+		int size = 1;
+		for (int d : _shape) size *= d;
+		return size;
+	}
+
+	/** Shape as a list of numbers */
+	public List shape() {
+		double[] out = new double[_shape.length];
+		for (int i = 0; i < _shape.length; i++) out[i] = _shape[i];
+		return new List(new DoubleList(out));
+	}
+
+	private boolean isContiguous() {
+		return _offset == 0
+				&& _data.length == size()
+				&& Arrays.equals(_strides, contiguousStrides(_shape));
+	}
+
+	/** Return the elements in row-major order. May share the backing array; do not modify */
+	private double[] flatData() {
+		if (isContiguous()) {
+			return _data;
+		} else {
+			double[] out = new double[size()];
+			gather(_data, _offset, _shape, _strides, 0, out, 0);
+			return out;
+		}
+	}
+
+	/** All elements in row-major order as a 1d list */
+	public DoubleList flat() {
+		DoubleList out = new DoubleList(flatData());
+		out._aliased = true;
+		return out;
+	}
+
+	/** Copy the strided elements starting at dimension dim into out. Return the next position in out */
+	private static int gather(double[] data, int offset, int[] shape, int[] strides, int dim, double[] out, int pos) {
+		final int n = shape[dim];
+		final int stride = strides[dim];
+		if (dim == shape.length - 1) {
+			if (stride == 1) {
+				System.arraycopy(data, offset, out, pos, n);
+				return pos + n;
+			} else {
+				for (int i = 0; i < n; i++) {
+					out[pos++] = data[offset + i * stride];
+				}
+				return pos;
+			}
+		} else {
+			for (int i = 0; i < n; i++) {
+				pos = gather(data, offset + i * stride, shape, strides, dim + 1, out, pos);
+			}
+			return pos;
+		}
+	}
+
+	/** Return the sub-array at index i of the first axis */
+	private ListImpl sub(int i) {
+		final int off = _offset + i * _strides[0];
+		final int[] shape = Arrays.copyOfRange(_shape, 1, _shape.length);
+		final int[] strides = Arrays.copyOfRange(_strides, 1, _strides.length);
+		if (shape.length == 1) {
+			double[] out = new double[shape[0]];
+			gather(_data, off, shape, strides, 0, out, 0);
+			return new DoubleList(out);
+		} else {
+			return new NDArray(_data, shape, strides, off);
+		}
+	}
+
+	/** Swap the first two axes without copying */
+	public NDArray transpose() {
+		int[] shape = _shape.clone();
+		int[] strides = _strides.clone();
+		shape[0] = _shape[1];
+		shape[1] = _shape[0];
+		strides[0] = _strides[1];
+		strides[1] = _strides[0];
+		return new NDArray(_data, shape, strides, _offset);
+	}
+
+	/** Return an array with the same elements and new dimensions. Does not copy if
+	 * the array is contiguous. Returns null if the sizes do not match */
+	public ListImpl reshape(int[] dims) {
+		int size = 1;
+		for (int d : dims) {
+			if (d < 0) return null;
+			size *= d;
+		}
+		if (size != size()) {
+			return null;
+		} else if (dims.length == 1) {
+			return new DoubleList(Arrays.copyOf(flatData(), size));
+		} else {
+			return new NDArray(flatData(), dims.clone(), contiguousStrides(dims), 0);
+		}
+	}
+
+	/** Wrap a flat result with the given shape */
+	private static List withShape(NumberList flat, int[] shape) {
+		DoubleList ds = DoubleList.asDoubleList(flat);
+		if (ds != null) {
+			ds._aliased = true;
+			return new List(create(ds._list, shape));
+		} else {
+			// Result is not real (ex. complex), use nested lists
+			double[] dims = new double[shape.length];
+			for (int i = 0; i < shape.length; i++) dims[i] = shape[i];
+			return new List(flat).reshape(new DoubleList(dims));
+		}
+	}
+
+	/** Apply a 1 arg operation element-wise */
+	public List map(NumberListOp op) {
+		return withShape(op.l(flat()), _shape);
+	}
+
+	/** Apply a 2 arg operation element-wise with a scalar on the right */
+	public List mapLeft(NumberListOp op, Number n) {
+		return withShape(op.ln(flat(), n), _shape);
+	}
+
+	/** Apply a 2 arg operation element-wise with a scalar on the left */
+	public List mapRight(NumberListOp op, Number n) {
+		return withShape(op.nl(n, flat()), _shape);
+	}
+
+	/**
+	 * Apply a 2 arg operation element-wise. Like nested lists, the shapes
+	 * are aligned on the first axis and the operand with fewer dimensions
+	 * is repeated along the remaining axes of the other. Returns null if
+	 * either operand is not a real numeric array.
+	 */
+	public static List broadcast(NumberListOp op, List a, List b) {
+		final int[] a_shape = shapeOf(a);
+		final int[] b_shape = shapeOf(b);
+		if (a_shape == null || b_shape == null) return null;
+
+		final boolean a_big = a_shape.length >= b_shape.length;
+		final int[] big = a_big ? a_shape : b_shape;
+		final int[] small = a_big ? b_shape : a_shape;
+		for (int i = 0; i < small.length; i++) {
+			if (small[i] != big[i]) {
+				throw new ValueError("Dimension mismatch. Shapes must be equal but are: "
+						+ Arrays.toString(a_shape) + ", " + Arrays.toString(b_shape));
+			}
+		}
+
+		DoubleList xs = flatOf(a);
+		DoubleList ys = flatOf(b);
+		if (a_big) {
+			ys = repeatEach(ys, xs.length() / Math.max(1, ys.length()));
+		} else {
+			xs = repeatEach(xs, ys.length() / Math.max(1, xs.length()));
+		}
+		return withShape(op.ll(xs, ys), big);
+	}
+
+	private static int[] shapeOf(List l) {
+		if (l.isa(Obj.NDARRAY)) {
+			return List.asNDArray(l)._shape;
+		} else if (l.isa(Obj.DOUBLELIST)) {
+			return new int[] {l.length()};
+		} else {
+			return null;
+		}
+	}
+
+	private static DoubleList flatOf(List l) {
+		if (l.isa(Obj.NDARRAY)) {
+			return List.asNDArray(l).flat();
+		} else {
+			return DoubleList.asDoubleList(l.toNumberList());
+		}
+	}
+
+	private static DoubleList repeatEach(DoubleList ds, int k) {
+		if (k == 1) return ds;
+		final double[] src = ds._list;
+		double[] out = new double[src.length * k];
+		for (int i = 0; i < src.length; i++) {
+			Arrays.fill(out, i * k, (i + 1) * k, src[i]);
+		}
+		return new DoubleList(out);
+	}
+
+	/** Fully nested list representation of this array */
+	private ArrayList<Obj> toNested() {
+		ArrayList<Obj> out = new ArrayList<Obj>(length());
+		for (int i = 0; i < length(); i++) {
+			ListImpl item = sub(i);
+			if (item instanceof NDArray) {
+				out.add(new List(new GenericList(((NDArray)item).toNested())));
+			} else {
+				out.add(new List(item));
+			}
+		}
+		return out;
+	}
+
+
+	////////////////////
+	// LIST OVERRIDES //
+	////////////////////
+
+	@Override
+	public int length() {
+		return _shape[0];
+	}
+
+	@Override
+	public ListImpl head(int n) {
+		if (n <= length()) {
+			return slice(0, n);
+		} else {
+			return new GenericList(toNested()).head(n);
+		}
+	}
+
+	@Override
+	public ListImpl tail(int n) {
+		if (n <= length()) {
+			return slice(length() - n, length());
+		} else {
+			return new GenericList(toNested()).tail(n);
+		}
+	}
+
+	@Override
+	public Obj head() {
+		return get(0);
+	}
+
+	@Override
+	public Obj tail() {
+		return get(length() - 1);
+	}
+
+	@Override
+	public ListImpl rotate(int n) {
+		final int len = length();
+		if (len == 0) return copy();
+		int[] ixs = new int[len];
+		for (int i = 0; i < len; i++) {
+			ixs[i] = Math.floorMod(i - n, len);
+		}
+		return get(ixs);
+	}
+
+	@Override
+	public Obj pop() {
+		final Obj o = get(0);
+		_offset += _strides[0];
+		_shape[0] -= 1;
+		return o;
+	}
+
+	@Override
+	public Obj popBack() {
+		final Obj o = get(length() - 1);
+		_shape[0] -= 1;
+		return o;
+	}
+
+	@Override
+	public void reverse() {
+		if (length() > 0) {
+			_offset += (_shape[0] - 1) * _strides[0];
+			_strides[0] = -_strides[0];
+		}
+	}
+
+	/** Sort the rows (sub-arrays of the first axis) like a nested list */
+	@Override
+	public void sort() {
+		final int len = length();
+		final Obj[] rows = new Obj[len];
+		final Integer[] order = new Integer[len];
+		for (int i = 0; i < len; i++) {
+			rows[i] = get(i);
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> ObjComparator.INSTANCE.compare(rows[a], rows[b]));
+		final int[] is = new int[len];
+		for (int i = 0; i < len; i++) is[i] = order[i];
+
+		// Copy into new data, other views of the old data are unchanged
+		NDArray out = (NDArray)get(is);
+		_data = out._data;
+		_shape = out._shape;
+		_strides = out._strides;
+		_offset = out._offset;
+	}
+
+	@Override
+	public ListImpl slice(int i, int j) {
+		int[] shape = _shape.clone();
+		shape[0] = j - i;
+		return new NDArray(_data, shape, _strides.clone(), _offset + i * _strides[0]);
+	}
+
+	@Override
+	public Obj get(int i) {
+		if (i < 0 || i >= length()) throw new IndexOutOfBoundsException();
+		return new List(sub(i));
+	}
+
+	@Override
+	public ListImpl get(int[] is) {
+		final int[] shape = _shape.clone();
+		shape[0] = is.length;
+		final int row_size = size() / Math.max(1, length());
+		double[] out = new double[is.length * row_size];
+		int pos = 0;
+		for (int i : is) {
+			if (i < 0 || i >= length()) throw new IndexOutOfBoundsException();
+			pos = gather(_data, _offset + i * _strides[0], _shape, _strides, 1, out, pos);
+		}
+		return new NDArray(out, shape);
+	}
+
+	@Override
+	public Obj remove(int i) {
+		final Obj o = get(i);
+		removeAll(new int[] {i});
+		return o;
+	}
+
+	@Override
+	public void removeAll(int[] ixs) {
+		boolean[] removed = new boolean[length()];
+		for (int i : ixs) removed[i] = true;
+		int keep = 0;
+		for (boolean b : removed) if (!b) keep++;
+		int[] kept = new int[keep];
+		for (int i = 0, k = 0; i < removed.length; i++) {
+			if (!removed[i]) kept[k++] = i;
+		}
+		NDArray out = (NDArray)get(kept);
+		_data = out._data;
+		_shape = out._shape;
+		_strides = out._strides;
+		_offset = out._offset;
+	}
+
+	@Override
+	public int find(Obj o) {
+		return ListAlgorithms.find(getObjAL(), o);
+	}
+
+	@Override
+	public ListImpl findAll(Obj o) {
+		return NumberList.fromNumberAL(ListAlgorithms.findAll(getObjAL(), o));
+	}
+
+	@Override
+	public int findBack(Obj o) {
+		return ListAlgorithms.findBack(getObjAL(), o);
+	}
+
+	@Override
+	public int count(Obj o) {
+		return ListAlgorithms.count(getObjAL(), o);
+	}
+
+	/** Return a fully nested copy of the array. Changes are not reflected in the array */
+	@Override
+	public ArrayList<Obj> getObjAL() {
+		return toNested();
+	}
+
+	@Override
+	public ListImpl unique() {
+		return new GenericList(ListAlgorithms.unique(getObjAL())).promote();
+	}
+
+	@Override
+	public boolean canInsert(Obj o) {
+		return false;
+	}
+
+	@Override
+	public ListImpl similarEmpty() {
+		return new GenericList(new ArrayList<Obj>());
+	}
+
+	@Override
+	public List sameShapeNull() {
+		return new List(new NDArray(new double[size()], _shape));
+	}
+
+	@Override
+	public List permutations() {
+		return Permutations.allPermutations(getObjAL());
+	}
+
+	@Override
+	protected ListImpl flatten() {
+		return new DoubleList(Arrays.copyOf(flatData(), size()));
+	}
+
+	@Override
+	public List split(Obj o) {
+		return List.from2D(ListAlgorithms.split(getObjAL(), o));
+	}
+
+	@Override
+	public void set(int i, Obj o) {
+		throw new ClassCastException();
+	}
+
+	@Override
+	public void addItem(Obj o) {
+		throw new ClassCastException();
+	}
+
+	@Override
+	public void addItem(int i, Obj o) {
+		throw new ClassCastException();
+	}
+
+	@Override
+	public void addAll(ListImpl l) {
+		throw new ClassCastException();
+	}
+
+	@Override
+	public NumberList toNumberList() {
+		throw new ValueError("Cannot convert list " + repr() + " to a numeric list.");
+	}
+
+	@Override
+	public NDArray copy() {
+		return new NDArray(_data, _shape.clone(), _strides.clone(), _offset);
+	}
+
+	@Override
+	protected ListImpl promote() {
+		if (length() == 0) {
+			return new GenericList(new ArrayList<Obj>());
+		} else {
+			return this;
+		}
+	}
+
+
+	////////////////////
+	// Obj OVERRIDES //
+	////////////////////
+
+	@Override
+	protected byte type() {
+		return Obj.NDARRAY;
+	}
+
+	@Override
+	protected boolean isa(byte type) {
+		return type == Obj.LIST || type == Obj.OBJLIST || type == Obj.NDARRAY;
+	}
+
+	@Override
+	protected boolean equiv(ListImpl o) {
+		if (o instanceof NDArray) {
+			NDArray other = (NDArray)o;
+			return Arrays.equals(_shape, other._shape) && Arrays.equals(flatData(), other.flatData());
+		} else if (o.length() == length()) {
+			for (int i = 0; i < length(); i++) {
+				if (!o.get(i).equiv(get(i))) {
+					return false;
+				}
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public String str() {
+		return ListAlgorithms.str(getObjAL());
+	}
+
+	@Override
+	protected ReprStream repr(ReprStream stream) {
+		return ListAlgorithms.repr(stream, getObjAL());
+	}
+
+	@Override
+	protected boolean bool() {
+		return length() != 0;
+	}
+
+	@Override
+	protected NDArray deepcopy() {
+		// Data is never modified in place
+		return copy();
+	}
+
+}
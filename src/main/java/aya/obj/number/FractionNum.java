@@ -42,6 +42,14 @@ public class FractionNum extends Number {
 	public FractionNum(BigInteger n, BigInteger d) {
 		_val = new BigFraction(n, d);
 	}
+
+	public BigInteger numerator() {
+		return _val.getNumerator();
+	}
+
+	public BigInteger denominator() {
+		return _val.getDenominator();
+	}
 	
 	public FractionNum(BigDecimal n) {
 		_val = new BigFraction(n);
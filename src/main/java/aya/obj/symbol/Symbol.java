@@ -8,9 +8,11 @@ import aya.util.StringUtils;
 public class Symbol extends Obj {
 	
 	int _id;
+	private final boolean _quote; // The name is not a basic symbol string
 
-	protected Symbol(int id) {
+	protected Symbol(int id, boolean quote) {
 		_id = id;
+		_quote = quote;
 	}
 	
 	public int id() {
@@ -19,10 +21,10 @@ public class Symbol extends Obj {
 	
 	public String name() {
 		String s = Aya.getInstance().getSymbols().getName(this);
-		if (SymbolTable.isBasicSymbolString(s)) {
-			return s;
-		} else {
+		if (_quote) {
 			return StringUtils.quote(s);
+		} else {
+			return s;
 		}
 	}
 	
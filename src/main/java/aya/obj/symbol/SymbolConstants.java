@@ -82,6 +82,7 @@ public class SymbolConstants {
 	public static final Symbol KEYVAR_ROR		= S.getSymbol("__ror__");
 	public static final Symbol KEYVAR_FLOAT 	= S.getSymbol("__float__");
 	public static final Symbol KEYVAR_EACH 		= S.getSymbol("__each__");
+	public static final Symbol KEYVAR_NEXT 		= S.getSymbol("__next__");
 	public static final Symbol KEYVAR_STR 		= S.getSymbol("__str__");
 	public static final Symbol KEYVAR_REPR 		= S.getSymbol("__repr__");
 	public static final Symbol KEYVAR_BOOL    	= S.getSymbol("__bool__");
@@ -1,16 +1,24 @@
 package aya.obj.symbol;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Interns symbol names. Lookups by name and by id do not lock, only
+ * creating a new symbol does, so the table can be used from any thread.
+ */
 public class SymbolTable {
 	
-	private HashMap<String, Symbol> _symbols;
-	private HashMap<Integer, String> _symbols_rev;
+	private ConcurrentHashMap<String, Symbol> _symbols;
+	// Names indexed by id. Replaced by a larger copy when full, a new
+	// name is always written before the array is (re)published
+	private volatile String[] _names;
 	private int _counter;
 	
 	public SymbolTable() {
-		_symbols = new HashMap<String, Symbol>();
-		_symbols_rev = new HashMap<Integer, String>();
+		_symbols = new ConcurrentHashMap<String, Symbol>();
+		_names = new String[1024];
 		_counter = 1; // 0: null
 	}
 	
@@ -23,8 +31,10 @@ public class SymbolTable {
 		}
 	}
 	
-	String getName(Symbol s) {
-		String name = _symbols_rev.get(s._id);
+	/** Returns the name of the symbol without quotes */
+	public String getName(Symbol s) {
+		final String[] names = _names;
+		String name = s._id < names.length ? names[s._id] : null;
 		if (name != null) {
 			return name;
 		} else {
@@ -32,10 +42,28 @@ public class SymbolTable {
 		}
 	}
 	
-	private Symbol newSymbol(String name) {
-		Symbol sym = new Symbol(_counter);
+	/** Returns the names of all symbols in the order they were created */
+	public synchronized ArrayList<String> getNames() {
+		ArrayList<String> names = new ArrayList<String>(_counter - 1);
+		for (int i = 1; i < _counter; i++) {
+			names.add(_names[i]);
+		}
+		return names;
+	}
+	
+	private synchronized Symbol newSymbol(String name) {
+		// Another thread may have created it first
+		Symbol sym = _symbols.get(name);
+		if (sym != null) return sym;
+
+		String[] names = _names;
+		if (_counter == names.length) {
+			names = Arrays.copyOf(names, names.length * 2);
+		}
+		names[_counter] = name;
+		_names = names;
+		sym = new Symbol(_counter, !isBasicSymbolString(name));
 		_symbols.put(name, sym);
-		_symbols_rev.put(_counter,  name);
 		_counter++;
 		return sym;
 	}
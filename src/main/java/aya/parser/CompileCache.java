@@ -0,0 +1,57 @@
+package aya.parser;
+
+import java.util.ArrayList;
+
+import aya.Aya;
+import aya.exceptions.ex.ParserException;
+import aya.instruction.BlockLiteralInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.InstructionStack;
+import aya.instruction.NumberListLiteralInstruction;
+import aya.util.LRUCache;
+
+/**
+ * Cache of compiled source strings shared by everything that evaluates a
+ * string at runtime (<code>~</code> and <code>.~</code>). The cache is
+ * bounded by the total number of instructions it holds, counting the
+ * instructions of nested block literals and the items of number list
+ * literals.
+ *
+ * Cached instruction stacks are shared, callers must copy them before
+ * modifying them.
+ */
+public class CompileCache {
+
+	/** Maximum total number of cached instructions */
+	private static final long MAX_INSTRUCTIONS = 1 << 16;
+
+	private static final LRUCache<String, InstructionStack> _cache =
+			new LRUCache<String, InstructionStack>(MAX_INSTRUCTIONS, CompileCache::weight);
+
+	/** Compile the string or return the cached instructions. Do not modify the result */
+	public static InstructionStack compile(String s, Aya aya) throws ParserException {
+		InstructionStack is = _cache.get(s);
+		if (is == null) {
+			is = Parser.compileIS(s, aya);
+			_cache.put(s, is);
+		}
+		return is;
+	}
+
+	public static LRUCache<String, InstructionStack> getCache() {
+		return _cache;
+	}
+
+	private static long weight(InstructionStack is) {
+		final ArrayList<Instruction> instructions = is.getInstrucionList();
+		long w = Math.max(1, instructions.size());
+		for (Instruction i : instructions) {
+			if (i instanceof BlockLiteralInstruction) {
+				w += weight(((BlockLiteralInstruction)i).getRawBlock().getInstructions());
+			} else if (i instanceof NumberListLiteralInstruction) {
+				w += ((NumberListLiteralInstruction)i).getValues().length;
+			}
+		}
+		return w;
+	}
+}
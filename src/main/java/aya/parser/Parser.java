@@ -1,6 +1,8 @@
 package aya.parser;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
 import aya.Aya;
 import aya.exceptions.ex.EndOfInputError;
@@ -42,6 +44,7 @@ import aya.parser.tokens.KeyVarToken;
 import aya.parser.tokens.LambdaToken;
 import aya.parser.tokens.ListToken;
 import aya.parser.tokens.NamedOpToken;
+import aya.parser.tokens.NumberListToken;
 import aya.parser.tokens.NumberToken;
 import aya.parser.tokens.OperatorToken;
 import aya.parser.tokens.SpecialToken;
@@ -68,6 +71,14 @@ public class Parser {
 	public static char CDICT_CHAR = (char)162; // cent
 
 	public static TokenQueue tokenize(Aya aya, String s) throws ParserException {
+		return tokenize(s, aya::addHelpText);
+	}
+
+	/**
+	 * Tokenize without using the interpreter. Help text from doc comments is
+	 * passed to helpText. Safe to call from any thread
+	 */
+	public static TokenQueue tokenize(String s, Consumer<String> helpText) throws ParserException {
 		TokenQueue tokens = new TokenQueue();
 		ParserString in = new ParserString(s);
 
@@ -90,7 +101,7 @@ public class Parser {
 						sb.append(in.next());
 					}
 					String doc = formatString(sb.toString()).trim();
-					aya.addHelpText(doc);
+					helpText.accept(doc);
 				}
 
 				else {
@@ -146,7 +157,7 @@ public class Parser {
 				// Add the documentation to Aya
 				if (isDocCode) {
 					String doc = formatString(docs.toString()).trim();
-					aya.addHelpText(doc);
+					helpText.accept(doc);
 				}
 			}
 
@@ -445,6 +456,15 @@ public class Parser {
 			} // end colon
 
 			else {
+				// List of plain numbers
+				if (current == '[') {
+					NumberListToken nums = parseNumberList(in);
+					if (nums != null) {
+						tokens.add(nums);
+						continue;
+					}
+				}
+
 				// Single Character Special Tokens
 				SpecialToken tmp = SpecialToken.get(current);
 				if (tmp != null) {
@@ -459,6 +479,64 @@ public class Parser {
 		return tokens;
 	}
 
+	/**
+	 * Fast path for list literals containing only plain integer and decimal
+	 * literals separated by whitespace such as <code>[1 -2 3.5]</code>. Called
+	 * after the '[' has been read. The values are the same as the ones
+	 * generated by NumberToken. If the list contains anything else (or
+	 * nothing), return null and leave the input unchanged
+	 */
+	public static NumberListToken parseNumberList(ParserString in) {
+		final char[] chars = in.chars;
+		final int start = in.ix;
+		int i = start;
+		double[] values = new double[16];
+		int n = 0;
+
+		while (true) {
+			while (i < chars.length && Character.isWhitespace(chars[i])) i++;
+			if (i >= chars.length) return null;
+			if (chars[i] == ']') break;
+
+			// -?[0-9]+(\.[0-9]+)?
+			final int num_start = i;
+			final boolean negative = chars[i] == '-';
+			if (negative) i++;
+			final int digits_start = i;
+			int int_value = 0;
+			while (i < chars.length && isAsciiDigit(chars[i])) {
+				int_value = int_value * 10 + (chars[i] - '0');
+				i++;
+			}
+			final int num_digits = i - digits_start;
+			if (num_digits == 0) return null;
+
+			boolean is_int = true;
+			if (i + 1 < chars.length && chars[i] == '.' && isAsciiDigit(chars[i+1])) {
+				is_int = false;
+				i++;
+				while (i < chars.length && isAsciiDigit(chars[i])) i++;
+			}
+			if (i >= chars.length || !(Character.isWhitespace(chars[i]) || chars[i] == ']')) return null;
+
+			if (n == values.length) values = Arrays.copyOf(values, n * 2);
+			if (is_int && num_digits <= 9) {
+				// Always fits in an int
+				values[n++] = negative ? -int_value : int_value;
+			} else {
+				values[n++] = new NumberToken(new String(chars, num_start, i - num_start)).numValue().toDouble();
+			}
+		}
+
+		if (n == 0) return null;
+		in.ix = i + 1; // Skip the ']'
+		return new NumberListToken(new String(chars, start, i - start), Arrays.copyOf(values, n));
+	}
+
+	private static boolean isAsciiDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
 	public static NumberToken parseNumber(ParserString in) throws EndOfInputError, SyntaxError {
 		if (!in.hasNext()) {
 			throw new SyntaxError("Attempted to parse empty number string");
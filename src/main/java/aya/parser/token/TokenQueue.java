@@ -7,18 +7,23 @@ import aya.parser.tokens.Token;
 
 public class TokenQueue  {
 	protected ArrayList<Token> queue;
+	// Index of the next token, tokens are not removed from the front of the list
+	// until getArrayList is called since it is O(n)
+	protected int head;
 	
 	public TokenQueue() {
 		queue = new ArrayList<Token>();
+		head = 0;
 	}
 	
-	@SuppressWarnings("unchecked")
 	public TokenQueue(TokenQueue other) {
-		this.queue = (ArrayList<Token>) other.queue.clone();
+		this.queue = new ArrayList<Token>(other.getArrayList());
+		head = 0;
 	}
 	
 	public TokenQueue(ArrayList<Token> tokens) {
 		this.queue = tokens;
+		head = 0;
 	}
 
 	public void add(Token t) {
@@ -27,44 +32,50 @@ public class TokenQueue  {
 	
 	/** Removes and returns the next token in the queue */
 	public Token next() throws EndOfInputError {
-		Token tmp = queue.get(0);
-		queue.remove(0);
+		Token tmp = queue.get(head);
+		queue.set(head, null);
+		head++;
 		return tmp;
 	}
 	
 	/** Removes and retuens the last token in the queue */
 	public Token popBack() {
+		if (size() == 0) throw new IndexOutOfBoundsException("Token queue is empty");
 		return queue.remove(queue.size()-1);	
 	}
 
 	/** Returns the next token without removing it */
 	public Token peek() {
-		return queue.get(0);
+		return queue.get(head);
 	}
 	
 	/** Returns the (next token + i) without removing it [lookAhead(0) == peek()]
 	 * returns null if element does not exist there (index out of bounds) */
 	public Token lookAhead(int i) {
-		return queue.get(i);
+		return queue.get(head + i);
 	}
 	
 	/** Returns false if there is no more data to be parsed (opposite of isEmpty)*/
 	public boolean hasNext() {
-		return queue.size() > 0;
+		return queue.size() > head;
 	}
 	
 	public ArrayList<Token> getArrayList() {
+		if (head > 0) {
+			queue.subList(0, head).clear();
+			head = 0;
+		}
 		return queue;
 	}
 
 	public int size() {
-		return queue.size();
+		return queue.size() - head;
 	}
 	
 	public String toString() {
 		StringBuilder sb = new StringBuilder("< ");
-		for (Token t : queue) {
-			sb.append(t.toString()).append(" ");
+		for (int i = head; i < queue.size(); i++) {
+			sb.append(queue.get(i).toString()).append(" ");
 		}
 		return sb.append(">").toString();
 	}
@@ -14,7 +14,7 @@ public class TokenStack {
 	
 	public TokenStack(TokenQueue other) {
 		this.stack = new Stack<Token>();
-		this.stack.addAll(other.queue);
+		this.stack.addAll(other.getArrayList());
 	}
 	
 	/** Returns true if there exists a token that can be popped */
@@ -12,6 +12,11 @@ public abstract class CollectionToken extends StdToken{
 		this.col = col;
 	}
 	
+	/** The tokens inside the collection */
+	public ArrayList<Token> getTokens() {
+		return col;
+	}
+	
 	/** Splits a list of tokens wherever a comma is */
 	protected static ArrayList<TokenQueue> splitCommas(ArrayList<Token> tokens) {
 		ArrayList<TokenQueue> out = new ArrayList<TokenQueue>();
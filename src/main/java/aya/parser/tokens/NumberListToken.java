@@ -0,0 +1,25 @@
+package aya.parser.tokens;
+
+import aya.instruction.Instruction;
+import aya.instruction.NumberListLiteralInstruction;
+
+/** A list literal containing only plain number literals, see {@link aya.parser.Parser#parseNumberList} */
+public class NumberListToken extends StdToken {
+	
+	private final double[] values;
+
+	public NumberListToken(String data, double[] values) {
+		super(data, Token.LIST);
+		this.values = values;
+	}
+
+	@Override
+	public Instruction getInstruction() {
+		return new NumberListLiteralInstruction(values);
+	}
+
+	@Override
+	public String typeString() {
+		return "list";
+	}
+}
@@ -0,0 +1,119 @@
+package aya.util;
+
+import java.util.ArrayList;
+
+import aya.instruction.DataInstruction;
+import aya.instruction.Instruction;
+import aya.instruction.op.OpInstruction;
+import aya.obj.Obj;
+import aya.obj.block.Block;
+import aya.obj.list.List;
+
+/**
+ * A block made only of number literals and element-wise operators,
+ * for example <code>{2*}</code>, <code>{1+}</code>, <code>{0&gt;}</code>
+ * or <code>{+}</code>. These blocks can be evaluated without the
+ * interpreter: applying one to a list of numbers gives the same result
+ * as mapping it over each number, so map and filter can use the
+ * vectorized NumberList kernels directly.
+ */
+public class ElementwiseBlock {
+
+	/** Instructions in execution order */
+	private final Instruction[] _instructions;
+	private final int _max_depth;
+
+	private ElementwiseBlock(Instruction[] instructions, int max_depth) {
+		_instructions = instructions;
+		_max_depth = max_depth;
+	}
+
+	/**
+	 * If the block takes nargs numbers and leaves exactly one number on the
+	 * stack using only number literals and element-wise operators, return an
+	 * ElementwiseBlock for it. Otherwise return null
+	 */
+	public static ElementwiseBlock compile(Block block, int nargs) {
+		final ArrayList<Instruction> instructions = block.getInstructions().getInstrucionList();
+		final int len = instructions.size();
+		if (len == 0) return null;
+
+		Instruction[] out = new Instruction[len];
+		int depth = nargs;
+		int max_depth = nargs;
+		for (int i = 0; i < len; i++) {
+			// The instruction stack is stored in reverse
+			final Instruction instr = instructions.get(len - 1 - i);
+			if (DataInstruction.isa(instr, Obj.NUMBER)) {
+				depth++;
+			} else if (instr instanceof OpInstruction) {
+				final int args = ((OpInstruction)instr).elementwiseArgs();
+				if (args == 0 || depth < args) return null;
+				depth -= args - 1;
+			} else {
+				return null;
+			}
+			max_depth = Math.max(depth, max_depth);
+			out[i] = instr;
+		}
+
+		if (depth == 1) {
+			return new ElementwiseBlock(out, max_depth);
+		} else {
+			return null;
+		}
+	}
+
+	/** Evaluate the block with the given arguments (bottom of the stack first) */
+	public Obj apply(Obj... args) {
+		final Obj[] stack = new Obj[_max_depth];
+		int top = args.length;
+		System.arraycopy(args, 0, stack, 0, top);
+
+		for (Instruction instr : _instructions) {
+			if (instr instanceof DataInstruction) {
+				stack[top++] = ((DataInstruction)instr).getData();
+			} else {
+				final OpInstruction op = (OpInstruction)instr;
+				if (op.elementwiseArgs() == 1) {
+					stack[top - 1] = op.exec1arg(stack[top - 1]);
+				} else {
+					final Obj b = stack[--top];
+					final Obj a = stack[top - 1];
+					stack[top - 1] = op.exec2arg(a, b);
+				}
+			}
+		}
+		return stack[0];
+	}
+
+	/**
+	 * Apply a 1 arg block to every item of a numeric list at once.
+	 * Returns null if the result is not a list of the same length
+	 */
+	public List map(List list) {
+		return applyList(list.length(), list);
+	}
+
+	/**
+	 * Apply the block to arguments where at least one is a numeric list
+	 * of length len. Returns null if the result is not a list of length len
+	 */
+	public List applyList(int len, Obj... args) {
+		final Obj out = apply(args);
+		if (out.isa(Obj.LIST) && Casting.asList(out).length() == len) {
+			return Casting.asList(out);
+		} else {
+			return null;
+		}
+	}
+
+	/** Left fold a 2 arg block over a non-empty list */
+	public Obj fold(List list) {
+		Obj acc = list.getExact(0);
+		for (int i = 1; i < list.length(); i++) {
+			acc = apply(acc, list.getExact(i));
+		}
+		return acc;
+	}
+}
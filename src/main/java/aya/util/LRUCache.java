@@ -1,19 +1,90 @@
 package aya.util;
 
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.ToLongFunction;
 
-public class LRUCache<K, V> extends LinkedHashMap<K, V> {
-	private static final long serialVersionUID = 1L;
+/**
+ * Least recently used cache bounded by the total weight of its values.
+ * By default every value weighs 1, so the bound is the number of entries.
+ * All methods are synchronized.
+ */
+public class LRUCache<K, V> {
 
-	private int cacheSize;
+	private final LinkedHashMap<K, V> _map = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private final long _maxWeight;
+	private final ToLongFunction<V> _weigher;
+	private long _weight;
+	private long _hits;
+	private long _misses;
 
 	public LRUCache(int cacheSize) {
-		super(16, 0.75f, true);
-		this.cacheSize = cacheSize;
+		this(cacheSize, v -> 1);
 	}
 
-	protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-		return size() >= cacheSize;
+	public LRUCache(long maxWeight, ToLongFunction<V> weigher) {
+		_maxWeight = maxWeight;
+		_weigher = weigher;
+		_weight = 0;
 	}
-}
\ No newline at end of file
+
+	/** Return the value and mark it as recently used, or null if it is not in the cache */
+	public synchronized V get(K key) {
+		final V v = _map.get(key);
+		if (v == null) {
+			_misses++;
+		} else {
+			_hits++;
+		}
+		return v;
+	}
+
+	/** Add the value, evicting the least recently used values until it fits. Values heavier than the cache are not added */
+	public synchronized void put(K key, V value) {
+		final long w = _weigher.applyAsLong(value);
+		remove(key);
+		if (w > _maxWeight) return;
+
+		_map.put(key, value);
+		_weight += w;
+		final Iterator<Map.Entry<K, V>> it = _map.entrySet().iterator();
+		while (_weight > _maxWeight && it.hasNext()) {
+			final Map.Entry<K, V> eldest = it.next();
+			_weight -= _weigher.applyAsLong(eldest.getValue());
+			it.remove();
+		}
+	}
+
+	public synchronized void remove(K key) {
+		final V old = _map.remove(key);
+		if (old != null) _weight -= _weigher.applyAsLong(old);
+	}
+
+	public synchronized void clear() {
+		_map.clear();
+		_weight = 0;
+		_hits = 0;
+		_misses = 0;
+	}
+
+	public synchronized int size() {
+		return _map.size();
+	}
+
+	public synchronized long weight() {
+		return _weight;
+	}
+
+	public long maxWeight() {
+		return _maxWeight;
+	}
+
+	public synchronized long hits() {
+		return _hits;
+	}
+
+	public synchronized long misses() {
+		return _misses;
+	}
+}
@@ -3,17 +3,11 @@ package aya.util;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
-import aya.obj.number.BigNum;
-import ch.obermuhlner.math.big.BigDecimalMath;
 
 public class MathUtils {
 	
 	
-	private static final BigInteger BI_ZERO = BigInteger.ZERO;
 	private static final BigInteger BI_ONE = BigInteger.ONE;
-	private static final BigInteger BI_TWO = BigInteger.valueOf(2);
-	private static final BigInteger BI_THREE = BigInteger.valueOf(3);
-	private static final BigInteger BI_SIX = BigInteger.valueOf(6);
 
 	public static int signnum(double val) {
 		if (val == 0.0) {
@@ -26,31 +20,14 @@ public class MathUtils {
 	}
 	
 	/** Primality Test */
-	// https://stackoverflow.com/questions/2385909/what-would-be-the-fastest-method-to-test-for-primality-in-java
 	public static boolean isPrime(long n) {
-	    if(n < 2) return false;
-	    if(n == 2 || n == 3) return true;
-	    if(n%2 == 0 || n%3 == 0) return false;
-	    long sqrtN = (long)Math.sqrt(n)+1;
-	    for(long i = 6L; i <= sqrtN; i += 6) {
-	        if(n%(i-1) == 0 || n%(i+1) == 0) return false;
-	    }
-	    return true;
-	}	
+		return Primes.isPrime(n);
+	}
 	
 	/** Primality Test */
 	public static boolean isPrime(BigInteger n) {
-		if (!n.isProbablePrime(64)) return false;
-	    if(n.compareTo(BI_TWO) < 0) return false;
-	    if(n.equals(BI_TWO) || n.equals(BI_THREE)) return true;
-	    if(n.mod(BI_TWO).equals(BI_ZERO) || n.mod(BI_THREE).equals(BI_ZERO)) return false;
-	    BigInteger sqrtN = BigDecimalMath.sqrt(new BigDecimal(n), BigNum.MC).toBigInteger();
-	    for(BigInteger i = BI_SIX; i.compareTo(sqrtN) <= 0; i = i.add(BI_SIX)) {
-	        //  n%(i-1) == 0 || n%(i+1) == 0
-	        if (n.mod(i.subtract(BI_ONE)).equals(BI_ZERO) || n.mod(i.add(BI_ONE)).equals(BI_ZERO)) return false;
-	    }
-	    return true;
-	}	
+		return Primes.isPrime(n);
+	}
 	
 	
 	/** Factorial (long) */
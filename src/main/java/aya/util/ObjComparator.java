@@ -0,0 +1,91 @@
+package aya.util;
+
+import java.util.Comparator;
+
+import aya.exceptions.runtime.ValueError;
+import aya.instruction.op.OpInstruction;
+import aya.instruction.op.Ops;
+import aya.obj.Obj;
+import aya.obj.character.Char;
+import aya.obj.list.List;
+import aya.obj.number.Number;
+
+/**
+ * Total order used for sorting lists of arbitrary objects.
+ *
+ * Numbers and chars are compared by value (a char is its code point),
+ * strings lexicographically and lists item by item. Numbers and chars sort
+ * before strings, which sort before other lists. Dicts are compared with
+ * their <code>__lt__</code> overload. Anything else raises a ValueError
+ */
+public class ObjComparator implements Comparator<Obj> {
+
+	public static final ObjComparator INSTANCE = new ObjComparator();
+
+	private static final OpInstruction LESS_THAN = Ops.OPS['<' - Ops.FIRST_OP];
+
+	private ObjComparator() { }
+
+	private static int rank(Obj o) {
+		if (o.isa(Obj.NUMBER) || o.isa(Obj.CHAR)) {
+			return 0;
+		} else if (o.isa(Obj.STR)) {
+			return 1;
+		} else if (o.isa(Obj.LIST)) {
+			return 2;
+		} else if (o.isa(Obj.DICT)) {
+			return 3;
+		} else {
+			throw new ValueError("Cannot sort objects of type " + Obj.typeName(o.type()) + ": " + o.repr());
+		}
+	}
+
+	private static double numericValue(Obj o) {
+		return o.isa(Obj.CHAR) ? ((Char)o).charValue() : ((Number)o).toDouble();
+	}
+
+	@Override
+	public int compare(Obj a, Obj b) {
+		final int ra = rank(a);
+		final int rb = rank(b);
+		if (ra != rb) {
+			if (ra == 3 || rb == 3) return compareLessThan(a, b);
+			return Integer.compare(ra, rb);
+		}
+
+		switch (ra) {
+		case 0:
+			if (a.isa(Obj.NUMBER) && b.isa(Obj.NUMBER)) {
+				return ((Number)a).compareTo((Number)b);
+			} else {
+				return Double.compare(numericValue(a) + 0.0, numericValue(b) + 0.0);
+			}
+		case 1:
+			return a.str().compareTo(b.str());
+		case 2:
+			return compareLists(Casting.asList(a), Casting.asList(b));
+		default:
+			return compareLessThan(a, b);
+		}
+	}
+
+	private int compareLists(List a, List b) {
+		final int n = Math.min(a.length(), b.length());
+		for (int i = 0; i < n; i++) {
+			final int c = compare(a.getExact(i), b.getExact(i));
+			if (c != 0) return c;
+		}
+		return Integer.compare(a.length(), b.length());
+	}
+
+	/** Compare using the &lt; operator (and its __lt__ overload) */
+	private static int compareLessThan(Obj a, Obj b) {
+		if (LESS_THAN.exec2arg(a, b).bool()) {
+			return -1;
+		} else if (LESS_THAN.exec2arg(b, a).bool()) {
+			return 1;
+		} else {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package aya.util;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Shared table of primes and primality tests.
+ *
+ * The table is built with a segmented sieve of Eratosthenes and is
+ * extended on demand, so repeated calls to Mp or G reuse the work of
+ * earlier calls. Large extensions sieve their segments in parallel.
+ * Numbers larger than the table are tested with a deterministic
+ * Miller-Rabin test.
+ */
+public class Primes {
+
+	/** Numbers per sieve segment */
+	private static final int SEGMENT_SIZE = 1 << 18;
+
+	/** Sieve segments in parallel if extending the table by at least this much */
+	private static final int PARALLEL_MIN = 1 << 22;
+
+	/** The table is always sieved at least this far */
+	private static final int INITIAL_LIMIT = 1 << 16;
+
+	/** Miller-Rabin with these bases is exact for all n < 3.3 * 10^24 */
+	private static final long[] MR_BASES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41};
+	private static final BigInteger MR_BIG_LIMIT = new BigInteger("3317044064679887385961981");
+
+	/** Immutable snapshot of the table: all primes <= limit in order */
+	private static class Table {
+		final int[] primes;
+		final int count;
+		final int limit;
+
+		Table(int[] primes, int count, int limit) {
+			this.primes = primes;
+			this.count = count;
+			this.limit = limit;
+		}
+	}
+
+	private static volatile Table _table = new Table(new int[0], 0, 1);
+
+	/** All primes less than or equal to n */
+	public static double[] upTo(int n) {
+		final Table t = ensure(n);
+		int end = Arrays.binarySearch(t.primes, 0, t.count, n);
+		end = end >= 0 ? end + 1 : -(end + 1);
+		final double[] out = new double[end];
+		for (int i = 0; i < end; i++) out[i] = t.primes[i];
+		return out;
+	}
+
+	public static boolean isPrime(long n) {
+		if (n < 2) return false;
+		Table t = _table;
+		if (t.limit < INITIAL_LIMIT) t = ensure(INITIAL_LIMIT);
+		if (n <= t.limit) {
+			return Arrays.binarySearch(t.primes, 0, t.count, (int)n) >= 0;
+		}
+		for (int i = 0; i < 12; i++) {
+			if (n % t.primes[i] == 0) return false;
+		}
+		return millerRabin(n);
+	}
+
+	public static boolean isPrime(BigInteger n) {
+		if (n.signum() <= 0) return false;
+		if (n.bitLength() < 63) return isPrime(n.longValue());
+		if (!n.testBit(0)) return false;
+		for (long a : MR_BASES) {
+			if (!millerRabinRound(n, BigInteger.valueOf(a))) return false;
+		}
+		// The bases above are only proven exact below MR_BIG_LIMIT
+		return n.compareTo(MR_BIG_LIMIT) < 0 || n.isProbablePrime(64);
+	}
+
+
+	///////////
+	// SIEVE //
+	///////////
+
+	/** Make sure the table contains all primes <= n and return it */
+	private static synchronized Table ensure(int n) {
+		final Table t = _table;
+		if (n <= t.limit) return t;
+
+		// Grow geometrically so many small extensions stay cheap
+		final int limit = (int)Math.max(n, Math.min(2L * t.limit, Integer.MAX_VALUE - 1));
+		final int lo = t.limit + 1;
+		final int[] base = simpleSieve((int)Math.sqrt(limit) + 1);
+
+		final int nseg = (int)(((long)limit - lo) / SEGMENT_SIZE + 1);
+		final IntStream segments = IntStream.range(0, nseg);
+		final int[][] found = (limit - lo >= PARALLEL_MIN ? segments.parallel() : segments)
+			.mapToObj(i -> {
+				final long seg_lo = lo + (long)i * SEGMENT_SIZE;
+				final long seg_hi = Math.min(seg_lo + SEGMENT_SIZE - 1, limit);
+				return sieveSegment(base, (int)seg_lo, (int)seg_hi);
+			})
+			.toArray(int[][]::new);
+
+		int count = t.count;
+		for (int[] f : found) count += f.length;
+		final int[] primes = Arrays.copyOf(t.primes, count);
+		int k = t.count;
+		for (int[] f : found) {
+			System.arraycopy(f, 0, primes, k, f.length);
+			k += f.length;
+		}
+
+		_table = new Table(primes, count, limit);
+		return _table;
+	}
+
+	/** Primes <= n using a plain sieve (used for the sieving primes) */
+	private static int[] simpleSieve(int n) {
+		final boolean[] composite = new boolean[n + 1];
+		int count = 0;
+		for (int i = 2; i <= n; i++) {
+			if (!composite[i]) {
+				count++;
+				for (long j = (long)i * i; j <= n; j += i) composite[(int)j] = true;
+			}
+		}
+		final int[] out = new int[count];
+		int k = 0;
+		for (int i = 2; i <= n; i++) {
+			if (!composite[i]) out[k++] = i;
+		}
+		return out;
+	}
+
+	/**
+	 * Primes in [lo, hi] given all primes <= sqrt(hi). The loops count with
+	 * a long so they end when hi is Integer.MAX_VALUE
+	 */
+	private static int[] sieveSegment(int[] base, int lo, int hi) {
+		final boolean[] composite = new boolean[hi - lo + 1];
+		for (int p : base) {
+			final long pp = (long)p * p;
+			if (pp > hi) break;
+			long start = Math.max(pp, ((lo + (long)p - 1) / p) * p);
+			for (long j = start; j <= hi; j += p) composite[(int)(j - lo)] = true;
+		}
+		int count = 0;
+		for (long i = Math.max(lo, 2); i <= hi; i++) {
+			if (!composite[(int)(i - lo)]) count++;
+		}
+		final int[] out = new int[count];
+		int k = 0;
+		for (long i = Math.max(lo, 2); i <= hi; i++) {
+			if (!composite[(int)(i - lo)]) out[k++] = (int)i;
+		}
+		return out;
+	}
+
+
+	//////////////////
+	// MILLER-RABIN //
+	//////////////////
+
+	/** Deterministic for all odd n > 37 that fit in a long */
+	private static boolean millerRabin(long n) {
+		// Products of two residues only fit in a long below this
+		if (n >= 3037000499L) {
+			final BigInteger bn = BigInteger.valueOf(n);
+			for (int i = 0; i < 12; i++) {
+				if (!millerRabinRound(bn, BigInteger.valueOf(MR_BASES[i]))) return false;
+			}
+			return true;
+		}
+
+		long d = n - 1;
+		int s = 0;
+		while ((d & 1) == 0) {
+			d >>= 1;
+			s++;
+		}
+		for (int i = 0; i < 12; i++) {
+			long x = powMod(MR_BASES[i], d, n);
+			if (x == 1 || x == n - 1) continue;
+			boolean composite = true;
+			for (int r = 1; r < s; r++) {
+				x = x * x % n;
+				if (x == n - 1) {
+					composite = false;
+					break;
+				}
+			}
+			if (composite) return false;
+		}
+		return true;
+	}
+
+	/** b^e mod m for m < 3037000499 */
+	private static long powMod(long b, long e, long m) {
+		long result = 1;
+		b %= m;
+		while (e > 0) {
+			if ((e & 1) == 1) result = result * b % m;
+			b = b * b % m;
+			e >>= 1;
+		}
+		return result;
+	}
+
+	/** One round of Miller-Rabin for odd n with base a, false if n is composite */
+	private static boolean millerRabinRound(BigInteger n, BigInteger a) {
+		final BigInteger n_1 = n.subtract(BigInteger.ONE);
+		if (a.mod(n).signum() == 0) return true;
+		final int s = n_1.getLowestSetBit();
+		final BigInteger d = n_1.shiftRight(s);
+		BigInteger x = a.modPow(d, n);
+		if (x.equals(BigInteger.ONE) || x.equals(n_1)) return true;
+		for (int r = 1; r < s; r++) {
+			x = x.multiply(x).mod(n);
+			if (x.equals(n_1)) return true;
+		}
+		return false;
+	}
+}
@@ -1,6 +1,7 @@
 package aya.util;
 
 import static aya.obj.Obj.LIST;
+import static aya.obj.Obj.NDARRAY;
 import static aya.obj.Obj.STR;
 import static aya.obj.Obj.NUMBER;
 import static aya.obj.Obj.NUMBERLIST;
@@ -13,6 +14,7 @@ import aya.exceptions.runtime.ValueError;
 import aya.instruction.op.OpInstruction;
 import aya.obj.Obj;
 import aya.obj.list.List;
+import aya.obj.list.numberlist.NDArray;
 import aya.obj.list.numberlist.NumberListOp;
 
 public class VectorizedFunctions {
@@ -29,6 +31,8 @@ public class VectorizedFunctions {
 	private static List vectorizeListObj(OpInstruction op, List a, Obj b, NumberListOp nlop) {
 		if (a.isa(NUMBERLIST) && b.isa(NUMBER)) {
 			return new List(nlop.ln(asNumberList(a), asNumber(b)));
+		} else if (a.isa(NDARRAY) && b.isa(NUMBER)) {
+			return List.asNDArray(a).mapLeft(nlop, asNumber(b));
 		} else {
 			return vectorizeListObj(op, a, b);
 		}
@@ -51,6 +55,8 @@ public class VectorizedFunctions {
 	private static List vectorizeObjList(OpInstruction op, Obj a, List b, NumberListOp nlop) {
 		if (b.isa(NUMBERLIST) && a.isa(NUMBER)) {
 			return new List(nlop.nl(asNumber(a), asNumberList(b)));
+		} else if (b.isa(NDARRAY) && a.isa(NUMBER)) {
+			return List.asNDArray(b).mapRight(nlop, asNumber(a));
 		} else {
 			return vectorizeObjList(op, a, b);
 		}
@@ -73,6 +79,9 @@ public class VectorizedFunctions {
 	private static List vectorizeListList(OpInstruction op, List a, List b, NumberListOp nlop) {
 		if (a.isa(NUMBERLIST) && b.isa(NUMBERLIST)) {
 			return new List(nlop.ll(asNumberList(a), asNumberList(b)));
+		} else if (a.isa(NDARRAY) || b.isa(NDARRAY)) {
+			List out = NDArray.broadcast(nlop, a, b);
+			return out != null ? out : vectorizeListList(op, a, b);
 		} else {
 			return vectorizeListList(op, a, b);
 		}
@@ -137,6 +146,8 @@ public class VectorizedFunctions {
 	private static List vectorizeList(OpInstruction op, List a, NumberListOp nlop) {
 		if (a.isa(NUMBERLIST)) {
 			return new List(nlop.l(asNumberList(a)));
+		} else if (a.isa(NDARRAY)) {
+			return List.asNDArray(a).map(nlop);
 		} else {
 			return vectorizeList(op, a);
 		}
@@ -165,7 +176,7 @@ public class VectorizedFunctions {
 
 	public static Obj vectorize1arg(OpInstruction op, Obj a, NumberListOp nlop) {
 		if (isList(a)) {
-			if (a.isa(NUMBERLIST)) {
+			if (a.isa(NUMBERLIST) || a.isa(NDARRAY)) {
 				return vectorizeList(op, asList(a), nlop);
 			} else {
 				return vectorizeList(op, asList(a));
@@ -10,6 +10,7 @@ import aya.Aya;
 import aya.InteractiveAya;
 import aya.exceptions.ex.ParserException;
 import aya.exceptions.runtime.UndefVarException;
+import aya.exceptions.runtime.ValueError;
 import aya.obj.Obj;
 import aya.obj.block.Block;
 import aya.obj.dict.Dict;
@@ -47,21 +48,69 @@ public class VariableData {
 	
 	private ArrayList<Scope> _var_sets = new ArrayList<Scope>();
 	private Stack<Integer> _checkpoints = new Stack<Integer>();
+	
+	/** Scopes below this index are shared with another thread and may not be assigned to */
+	private final int _readonly_depth;
+	// Objects created before this generation may not be modified, see Aya.checkMutable
+	private final int _generation;
 
-	private final Dict OBJ_STR = new Dict();
-	private final Dict OBJ_SYM = new Dict();
-	private final Dict OBJ_LIST = new Dict();
-	private final Dict OBJ_NUM = new Dict();
-	private final Dict OBJ_CHAR = new Dict();
-	private final Dict OBJ_BLOCK = new Dict();
-	private final Dict BUILTINS = new Dict();
+	private final Dict OBJ_STR;
+	private final Dict OBJ_SYM;
+	private final Dict OBJ_LIST;
+	private final Dict OBJ_NUM;
+	private final Dict OBJ_CHAR;
+	private final Dict OBJ_BLOCK;
+	private final Dict BUILTINS;
 
-	public final Dict OBJ_NIL = new Dict();
+	public final Dict OBJ_NIL;
 
 	public VariableData(Aya aya) {
+		OBJ_STR = new Dict();
+		OBJ_SYM = new Dict();
+		OBJ_LIST = new Dict();
+		OBJ_NUM = new Dict();
+		OBJ_CHAR = new Dict();
+		OBJ_BLOCK = new Dict();
+		BUILTINS = new Dict();
+		OBJ_NIL = new Dict();
+		_readonly_depth = 0;
+		_generation = 0;
 		initGlobals(aya);
 	}
 	
+	private VariableData(VariableData parent) {
+		OBJ_STR = parent.OBJ_STR;
+		OBJ_SYM = parent.OBJ_SYM;
+		OBJ_LIST = parent.OBJ_LIST;
+		OBJ_NUM = parent.OBJ_NUM;
+		OBJ_CHAR = parent.OBJ_CHAR;
+		OBJ_BLOCK = parent.OBJ_BLOCK;
+		BUILTINS = parent.BUILTINS;
+		OBJ_NIL = parent.OBJ_NIL;
+		_var_sets.addAll(parent._var_sets);
+		_readonly_depth = _var_sets.size();
+		_generation = Aya.nextGeneration();
+	}
+	
+	/**
+	 * Create a view of the current variables for evaluating blocks on another
+	 * thread. All existing scopes (including the globals) can be read but not
+	 * assigned to. Scopes added to the view are private to it. Lists and dicts
+	 * created before the view cannot be modified through it.
+	 */
+	public VariableData fork() {
+		return new VariableData(this);
+	}
+	
+	public int getGeneration() {
+		return _generation;
+	}
+	
+	private ValueError readOnlyError(Symbol v) {
+		return new ValueError("Cannot assign to non-local variable '" + v.name()
+				+ "' from a parallel block");
+	}
+	
 	private void initNil(Aya aya) {
 		Dict nil_meta = new Dict();
 		nil_meta.set(SymbolConstants.KEYVAR_TYPE, Aya.getInstance().getSymbols().getSymbol("__nil"));
@@ -118,6 +167,11 @@ public class VariableData {
 	public Dict getGlobals() {
 		return _var_sets.get(0).dict;
 	}
+
+	/** The dicts created before any code runs: globals, builtins and the builtin type metatables */
+	public Dict[] getRootDicts() {
+		return new Dict[] {getGlobals(), BUILTINS, OBJ_STR, OBJ_SYM, OBJ_LIST, OBJ_NUM, OBJ_CHAR, OBJ_BLOCK, OBJ_NIL};
+	}
 	
 	/** clears all but the global variables */
 	public void reset() {
@@ -127,6 +181,7 @@ public class VariableData {
 	}
 	
 	public void setGlobalVar(Symbol v, Obj o) {
+		if (_readonly_depth > 0) throw readOnlyError(v);
 		_var_sets.get(0).dict.set(v, o);
 	}
 	
@@ -165,6 +220,7 @@ public class VariableData {
 		for(int i = _var_sets.size()-1; i >=1; i--) {
 			Scope scope = _var_sets.get(i);
 			if(scope.dict.containsKey(v) || scope.capture_all_assignments) {
+				if (i < _readonly_depth) throw readOnlyError(v);
 				scope.dict.set(v, o);
 				return;
 			}